@@ -5,3 +5,16 @@ CREATE TABLE IF NOT EXISTS member_info (
     point INT,
     PRIMARY KEY(id)
 );
+CREATE TABLE IF NOT EXISTS member_info_staging (
+    step_execution_id BIGINT NOT NULL,
+    id CHAR(8),
+    status CHAR(1),
+    point INT
+);
+CREATE INDEX IF NOT EXISTS member_info_staging_ix1 ON member_info_staging (step_execution_id);
+CREATE TABLE IF NOT EXISTS member_info_reject (
+    id CHAR(8),
+    type CHAR(1),
+    status CHAR(1),
+    point INT
+);
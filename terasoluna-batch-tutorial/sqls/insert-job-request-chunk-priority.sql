@@ -0,0 +1,2 @@
+INSERT INTO batch_job_request(job_name,job_parameter,polling_status,priority,create_date)
+VALUES ('jobPointAddChunk', '', 'INIT', 10, current_timestamp);
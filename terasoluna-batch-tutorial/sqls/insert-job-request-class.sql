@@ -0,0 +1,3 @@
+DELETE FROM batch_job_request_class;
+INSERT INTO batch_job_request_class(job_name,max_concurrency,weight) VALUES ('jobPointAddChunk', 2, 1);
+INSERT INTO batch_job_request_class(job_name,max_concurrency,weight) VALUES ('jobPointAddTasklet', NULL, 3);
@@ -1,4 +1,5 @@
 TRUNCATE TABLE member_info;
+TRUNCATE TABLE member_info_reject;
 INSERT INTO member_info (id, type, status, point) VALUES ('00000001', 'G', '0', 0);
 INSERT INTO member_info (id, type, status, point) VALUES ('00000002', 'N', '0', 0);
 INSERT INTO member_info (id, type, status, point) VALUES ('00000003', 'G', '1', 10);
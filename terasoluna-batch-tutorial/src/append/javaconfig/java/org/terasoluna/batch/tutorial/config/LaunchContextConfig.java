@@ -15,6 +15,7 @@
  */
 package org.terasoluna.batch.tutorial.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.LocalCacheScope;
@@ -35,7 +36,6 @@ import org.springframework.batch.core.launch.support.SimpleJobOperator;
 import org.springframework.batch.core.launch.support.SimpleJvmExitCodeMapper;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
-import org.springframework.batch.item.validator.SpringValidator;
 import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -44,15 +44,21 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
-import org.springframework.context.support.ResourceBundleMessageSource;
 import org.springframework.core.io.Resource;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.jdbc.datasource.init.DataSourceInitializer;
 import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 import org.springframework.transaction.PlatformTransactionManager;
-import org.springframework.validation.Validator;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import org.terasoluna.batch.converter.JobParametersConverterImpl;
+import org.terasoluna.batch.tutorial.common.dto.MemberInfoDto;
+import org.terasoluna.batch.tutorial.common.jfr.JfrChunkListener;
+import org.terasoluna.batch.tutorial.common.jfr.JfrJobExecutionListener;
+import org.terasoluna.batch.tutorial.common.listener.JobLaunchOverheadListener;
+import org.terasoluna.batch.tutorial.common.listener.StepPhaseMetricsListener;
+import org.terasoluna.batch.tutorial.common.message.CachingMessageSource;
+import org.terasoluna.batch.tutorial.common.metrics.MeterRegistryFactoryBean;
+import org.terasoluna.batch.tutorial.common.validator.CompiledBeanValidator;
 
 import javax.sql.DataSource;
 import java.util.HashMap;
@@ -225,20 +231,21 @@ public class LaunchContextConfig {
 
     @Bean
     public MessageSource messageSource() {
-        final ResourceBundleMessageSource resourceBundleMessageSource = new ResourceBundleMessageSource();
-        resourceBundleMessageSource.setBasename("i18n/application-messages");
-        return resourceBundleMessageSource;
+        final CachingMessageSource cachingMessageSource = new CachingMessageSource();
+        cachingMessageSource.setBasenames("i18n/application-messages");
+        return cachingMessageSource;
     }
 
     @Bean
-    public SpringValidator<?> validator(Validator beanValidator) {
-        final SpringValidator<?> springValidator = new SpringValidator<>();
-        springValidator.setValidator(beanValidator);
-        return springValidator;
+    public CompiledBeanValidator<MemberInfoDto> validator(LocalValidatorFactoryBean beanValidator) {
+        final CompiledBeanValidator<MemberInfoDto> compiledBeanValidator = new CompiledBeanValidator<>();
+        compiledBeanValidator.setType(MemberInfoDto.class);
+        compiledBeanValidator.setValidator(beanValidator);
+        return compiledBeanValidator;
     }
 
     @Bean
-    public Validator beanValidator() {
+    public LocalValidatorFactoryBean beanValidator() {
         try (LocalValidatorFactoryBean localValidatorFactoryBean = new LocalValidatorFactoryBean()) {
             localValidatorFactoryBean.afterPropertiesSet();
             return localValidatorFactoryBean;
@@ -265,4 +272,43 @@ public class LaunchContextConfig {
     public SqlSessionTemplate batchModeSqlSessionTemplate(@Qualifier("jobSqlSessionFactory") SqlSessionFactory jobSqlSessionFactory) {
         return new SqlSessionTemplate(jobSqlSessionFactory, ExecutorType.BATCH);
     }
+
+    @Bean
+    public MeterRegistryFactoryBean meterRegistry(@Value("${tutorial.metrics.registries:none}") String registries,
+                                                  @Value("${tutorial.metrics.prometheus-file:}") String prometheusFile,
+                                                  @Value("${tutorial.metrics.export-interval:10}") long exportInterval) {
+        final MeterRegistryFactoryBean meterRegistryFactoryBean = new MeterRegistryFactoryBean();
+        meterRegistryFactoryBean.setRegistries(registries);
+        meterRegistryFactoryBean.setPrometheusFile(prometheusFile);
+        meterRegistryFactoryBean.setExportInterval(exportInterval);
+        return meterRegistryFactoryBean;
+    }
+
+    @Bean
+    public StepPhaseMetricsListener stepPhaseMetricsListener(MeterRegistry meterRegistry,
+                                                             @Value("${tutorial.metrics.percentile-histogram:false}") boolean percentileHistogram) {
+        final StepPhaseMetricsListener stepPhaseMetricsListener = new StepPhaseMetricsListener();
+        stepPhaseMetricsListener.setMeterRegistry(meterRegistry);
+        stepPhaseMetricsListener.setPercentileHistogram(percentileHistogram);
+        return stepPhaseMetricsListener;
+    }
+
+    @Bean
+    public JfrJobExecutionListener jfrJobExecutionListener() {
+        return new JfrJobExecutionListener();
+    }
+
+    @Bean
+    public JobLaunchOverheadListener jobLaunchOverheadListener(MeterRegistry meterRegistry,
+                                                               @Value("${tutorial.metrics.percentile-histogram:false}") boolean percentileHistogram) {
+        final JobLaunchOverheadListener jobLaunchOverheadListener = new JobLaunchOverheadListener();
+        jobLaunchOverheadListener.setMeterRegistry(meterRegistry);
+        jobLaunchOverheadListener.setPercentileHistogram(percentileHistogram);
+        return jobLaunchOverheadListener;
+    }
+
+    @Bean
+    public JfrChunkListener jfrChunkListener() {
+        return new JfrChunkListener();
+    }
 }
@@ -15,6 +15,7 @@
  */
 package org.terasoluna.batch.tutorial.config.asyncJobExecution;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.ibatis.mapping.DatabaseIdProvider;
 import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
 import org.apache.ibatis.session.ExecutorType;
@@ -33,6 +34,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.jdbc.datasource.init.DataSourceInitializer;
@@ -43,6 +45,12 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.terasoluna.batch.async.db.JobRequestPollTask;
 import org.terasoluna.batch.async.db.repository.BatchJobRequestRepository;
+import org.terasoluna.batch.tutorial.common.async.JobRequestClaimTracker;
+import org.terasoluna.batch.tutorial.common.async.JobRequestQueueMetricsInterceptor;
+import org.terasoluna.batch.tutorial.common.async.JobRequestWakeUpDispatcher;
+import org.terasoluna.batch.tutorial.common.async.WarmJobContextFactoryBean;
+import org.terasoluna.batch.tutorial.common.concurrent.TaskExecutorFactoryBean;
+import org.terasoluna.batch.tutorial.common.jfr.JfrJobRequestPollTask;
 import org.terasoluna.batch.tutorial.config.helper.ApplicationContextFactoryHelper;
 import org.terasoluna.batch.tutorial.config.LaunchContextConfig;
 
@@ -67,12 +75,13 @@ public class AsyncExceptionHandlingWithListenerChunkConfig {
     }
 
     @Bean
-    public ThreadPoolTaskExecutor daemonTaskExecutor(@Value("${async-batch-daemon.job-concurrency-num:#{null}}") int concurrency) {
-        final ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
-        threadPoolTaskExecutor.setCorePoolSize(concurrency);
-        threadPoolTaskExecutor.setMaxPoolSize(concurrency);
-        threadPoolTaskExecutor.setQueueCapacity(0);
-        return threadPoolTaskExecutor;
+    public TaskExecutorFactoryBean daemonTaskExecutor(@Value("${async-batch-daemon.job-concurrency-num:#{null}}") int concurrency,
+                                                      @Value("${tutorial.task-executor.type:platform}") String type) {
+        final TaskExecutorFactoryBean taskExecutorFactoryBean = new TaskExecutorFactoryBean();
+        taskExecutorFactoryBean.setType(type);
+        taskExecutorFactoryBean.setConcurrencyLimit(concurrency);
+        taskExecutorFactoryBean.setQueueCapacity(0);
+        return taskExecutorFactoryBean;
     }
 
     @Bean
@@ -86,11 +95,13 @@ public class AsyncExceptionHandlingWithListenerChunkConfig {
     public DataSourceInitializer asyncDataSourceInitializer(@Qualifier("adminDataSource") DataSource adminDataSource,
                                                        @Value("${data-source.initialize.enabled:false}") boolean enabled,
                                                        @Value("${async-batch-daemon.schema.script:#{null}}") Resource script,
-                                                       @Value("${terasoluna-batch.commit.script:#{null}}") Resource commitScript) {
+                                                       @Value("${terasoluna-batch.commit.script:#{null}}") Resource commitScript,
+                                                       @Value("${tutorial.job-request-schedule.script:#{null}}") Resource scheduleScript) {
         final DataSourceInitializer asyncDataSourceInitializer = new DataSourceInitializer();
         asyncDataSourceInitializer.setDataSource(adminDataSource);
         asyncDataSourceInitializer.setEnabled(enabled);
-        ResourceDatabasePopulator resourceDatabasePopulator = new ResourceDatabasePopulator(script, commitScript);
+        ResourceDatabasePopulator resourceDatabasePopulator = new ResourceDatabasePopulator(script, commitScript,
+            scheduleScript);
         resourceDatabasePopulator.setContinueOnError(true);
         asyncDataSourceInitializer.setDatabasePopulator(resourceDatabasePopulator);
         return asyncDataSourceInitializer;
@@ -101,17 +112,54 @@ public class AsyncExceptionHandlingWithListenerChunkConfig {
                                                  JobOperator jobOperator,
                                                  BatchJobRequestRepository batchJobRequestRepository,
                                                  @Qualifier("daemonTaskExecutor") ThreadPoolTaskExecutor daemonTaskExecutor,
-                                                 AutomaticJobRegistrar automaticJobRegistrar) {
-        return new JobRequestPollTask(batchJobRequestRepository, adminTransactionManager, daemonTaskExecutor, jobOperator,
-            automaticJobRegistrar);
+                                                 AutomaticJobRegistrar automaticJobRegistrar,
+                                                 JobRequestClaimTracker jobRequestClaimTracker) {
+        final JfrJobRequestPollTask jobRequestPollTask = new JfrJobRequestPollTask(batchJobRequestRepository,
+            adminTransactionManager, daemonTaskExecutor, jobOperator, automaticJobRegistrar);
+        jobRequestPollTask.setClaimTracker(jobRequestClaimTracker);
+        return jobRequestPollTask;
+    }
+
+    @Bean
+    public JobRequestClaimTracker jobRequestClaimTracker(@Qualifier("adminDataSource") DataSource adminDataSource) {
+        final JobRequestClaimTracker jobRequestClaimTracker = new JobRequestClaimTracker();
+        jobRequestClaimTracker.setDataSource(adminDataSource);
+        return jobRequestClaimTracker;
+    }
+
+    @Bean
+    public JobRequestWakeUpDispatcher jobRequestWakeUpDispatcher(JobRequestPollTask jobRequestPollTask,
+                                                                 @Qualifier("adminDataSource") DataSource adminDataSource,
+                                                                 @Value("${tutorial.job-request-wake-up.enabled:true}") boolean enabled,
+                                                                 @Value("${tutorial.job-request-wake-up.delay:10}") long delay) {
+        final JobRequestWakeUpDispatcher jobRequestWakeUpDispatcher = new JobRequestWakeUpDispatcher();
+        jobRequestWakeUpDispatcher.setJobRequestPollTask(jobRequestPollTask);
+        jobRequestWakeUpDispatcher.setDataSource(adminDataSource);
+        jobRequestWakeUpDispatcher.setEnabled(enabled);
+        jobRequestWakeUpDispatcher.setDelay(delay);
+        return jobRequestWakeUpDispatcher;
+    }
+
+    @Bean
+    public JobRequestQueueMetricsInterceptor jobRequestQueueMetricsInterceptor(MeterRegistry meterRegistry,
+                                                                               @Value("${tutorial.metrics.percentile-histogram:false}") boolean percentileHistogram) {
+        final JobRequestQueueMetricsInterceptor jobRequestQueueMetricsInterceptor = new JobRequestQueueMetricsInterceptor();
+        jobRequestQueueMetricsInterceptor.setMeterRegistry(meterRegistry);
+        jobRequestQueueMetricsInterceptor.setPercentileHistogram(percentileHistogram);
+        return jobRequestQueueMetricsInterceptor;
     }
 
     @Bean
     public SqlSessionFactory adminSqlSessionFactory(@Qualifier("adminDataSource") DataSource adminDataSource,
-                                                    DatabaseIdProvider databaseIdProvider) throws Exception {
+                                                    DatabaseIdProvider databaseIdProvider,
+                                                    JobRequestQueueMetricsInterceptor jobRequestQueueMetricsInterceptor,
+                                                    JobRequestClaimTracker jobRequestClaimTracker) throws Exception {
         final SqlSessionFactoryBean sqlSessionFactoryBean = new SqlSessionFactoryBean();
         sqlSessionFactoryBean.setDataSource(adminDataSource);
         sqlSessionFactoryBean.setDatabaseIdProvider(databaseIdProvider);
+        sqlSessionFactoryBean.setPlugins(jobRequestQueueMetricsInterceptor, jobRequestClaimTracker);
+        sqlSessionFactoryBean.setMapperLocations(new ClassPathResource(
+                "org/terasoluna/batch/tutorial/common/async/BatchJobRequestRepository.xml"));
         final org.apache.ibatis.session.Configuration configuration = new org.apache.ibatis.session.Configuration();
         configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
         configuration.setLazyLoadingEnabled(true);
@@ -143,8 +191,13 @@ public class AsyncExceptionHandlingWithListenerChunkConfig {
     }
 
     @Bean
-    public ApplicationContextFactory[] applicationContextFactories(final ApplicationContext ctx) throws IOException {
-        return new ApplicationContextFactoryHelper(ctx).load("classpath:/META-INF/jobs/exceptionhandlingwithlistener/jobPointAddChunk.xml");
+    public WarmJobContextFactoryBean applicationContextFactories(final ApplicationContext ctx, MeterRegistry meterRegistry,
+                                                                 @Value("${tutorial.job-context.warm-up:true}") boolean warmUp) throws IOException {
+        final WarmJobContextFactoryBean warmJobContextFactoryBean = new WarmJobContextFactoryBean();
+        warmJobContextFactoryBean.setApplicationContextFactories(new ApplicationContextFactoryHelper(ctx).load("classpath:/META-INF/jobs/exceptionhandlingwithlistener/jobPointAddChunk.xml"));
+        warmJobContextFactoryBean.setMeterRegistry(meterRegistry);
+        warmJobContextFactoryBean.setWarmUp(warmUp);
+        return warmJobContextFactoryBean;
     }
 
     @Bean
@@ -159,6 +212,8 @@ public class AsyncExceptionHandlingWithListenerChunkConfig {
         final VendorDatabaseIdProvider vendorDatabaseIdProvider = new VendorDatabaseIdProvider();
         final Properties properties = new Properties();
         properties.setProperty("Oracle", "oracle");
+        properties.setProperty("PostgreSQL", "postgresql");
+        properties.setProperty("H2", "h2");
         vendorDatabaseIdProvider.setProperties(properties);
         return vendorDatabaseIdProvider;
     }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.benchmark;
+
+/**
+ * Shape of the member_info data used by the benchmarks.
+ *
+ * @since 5.5.0
+ */
+public enum DataShape {
+
+    /**
+     * Every member is a target of the point-add rule.
+     */
+    ALL_TARGET(1.0, 0),
+
+    /**
+     * Half of the members are targets of the point-add rule.
+     */
+    MIXED(0.5, 0),
+
+    /**
+     * Every member is a target and already has nearly the maximum point.
+     */
+    NEAR_CAP(1.0, 999_900);
+
+    private final double targetRatio;
+
+    private final int basePoint;
+
+    DataShape(double targetRatio, int basePoint) {
+        this.targetRatio = targetRatio;
+        this.basePoint = basePoint;
+    }
+
+    public double getTargetRatio() {
+        return targetRatio;
+    }
+
+    public int getBasePoint() {
+        return basePoint;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileItemWriter;
+import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.BeanWrapperFieldExtractor;
+import org.springframework.batch.item.file.transform.DelimitedLineAggregator;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.file.transform.FieldExtractor;
+import org.springframework.core.io.FileSystemResource;
+import org.terasoluna.batch.tutorial.common.dto.MemberInfoDto;
+import org.terasoluna.batch.tutorial.common.mapping.LambdaFieldExtractor;
+import org.terasoluna.batch.tutorial.common.mapping.LambdaFieldSetMapper;
+import org.terasoluna.batch.tutorial.common.reader.MemberInfoMappedFileItemReader;
+import org.terasoluna.batch.tutorial.fileaccess.chunk.PointAddItemProcessor;
+
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the read, process and write pipeline of the fileaccess job.
+ * <p>
+ * One operation reads a whole generated MS932 file, applies the point-add rule and writes the result in chunks of
+ * {@code chunkSize} items, with the reader, mapper and writer settings of the fileaccess job XML. {@code reader}
+ * selects {@code FlatFileItemReader} or the memory-mapped reader, and {@code mapping} selects the
+ * {@code BeanWrapper} or the generated field mapping.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FlatFilePipelineBenchmark {
+
+    private static final String[] NAMES = { "id", "type", "status", "point" };
+
+    @Param({ "100000" })
+    int rows;
+
+    @Param({ "10", "100", "1000" })
+    int chunkSize;
+
+    @Param({ "ALL_TARGET", "MIXED", "NEAR_CAP" })
+    DataShape shape;
+
+    @Param({ "flatFile", "mapped" })
+    String reader;
+
+    @Param({ "beanWrapper", "lambda" })
+    String mapping;
+
+    private final ItemProcessor<MemberInfoDto, MemberInfoDto> processor = new PointAddItemProcessor();
+
+    private Path directory;
+
+    private Path input;
+
+    private Path output;
+
+    @Setup
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("flat-file-benchmark");
+        input = directory.resolve("input.csv");
+        output = directory.resolve("output.csv");
+        MemberInfoData.writeCsv(input, MemberInfoData.generate(rows, shape), Charset.forName("MS932"));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void readProcessWrite(RowCounter counter) throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        ItemStreamReader<MemberInfoDto> itemReader = createReader();
+        FlatFileItemWriter<MemberInfoDto> itemWriter = createWriter();
+        itemReader.open(executionContext);
+        itemWriter.open(executionContext);
+        try {
+            List<MemberInfoDto> items = new ArrayList<>(chunkSize);
+            MemberInfoDto item;
+            while ((item = itemReader.read()) != null) {
+                items.add(processor.process(item));
+                if (items.size() == chunkSize) {
+                    itemWriter.write(new Chunk<>(items));
+                    itemWriter.update(executionContext);
+                    items.clear();
+                }
+            }
+            itemWriter.write(new Chunk<>(items));
+        } finally {
+            itemReader.close();
+            itemWriter.close();
+        }
+        counter.rows += rows;
+    }
+
+    private ItemStreamReader<MemberInfoDto> createReader() throws Exception {
+        if ("mapped".equals(reader)) {
+            MemberInfoMappedFileItemReader mappedReader = new MemberInfoMappedFileItemReader();
+            mappedReader.setResource(new FileSystemResource(input));
+            mappedReader.setEncoding("MS932");
+            mappedReader.afterPropertiesSet();
+            return mappedReader;
+        }
+
+        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+        tokenizer.setNames(NAMES);
+        tokenizer.setDelimiter(",");
+        tokenizer.setQuoteCharacter('"');
+
+        DefaultLineMapper<MemberInfoDto> lineMapper = new DefaultLineMapper<>();
+        lineMapper.setLineTokenizer(tokenizer);
+        lineMapper.setFieldSetMapper(createFieldSetMapper());
+
+        FlatFileItemReader<MemberInfoDto> flatFileReader = new FlatFileItemReader<>();
+        flatFileReader.setName("reader");
+        flatFileReader.setResource(new FileSystemResource(input));
+        flatFileReader.setEncoding("MS932");
+        flatFileReader.setStrict(true);
+        flatFileReader.setLineMapper(lineMapper);
+        flatFileReader.afterPropertiesSet();
+        return flatFileReader;
+    }
+
+    private FieldSetMapper<MemberInfoDto> createFieldSetMapper() throws Exception {
+        if ("lambda".equals(mapping)) {
+            LambdaFieldSetMapper<MemberInfoDto> mapper = new LambdaFieldSetMapper<>();
+            mapper.setTargetType(MemberInfoDto.class);
+            mapper.setNames(NAMES);
+            mapper.afterPropertiesSet();
+            return mapper;
+        }
+        BeanWrapperFieldSetMapper<MemberInfoDto> mapper = new BeanWrapperFieldSetMapper<>();
+        mapper.setTargetType(MemberInfoDto.class);
+        mapper.afterPropertiesSet();
+        return mapper;
+    }
+
+    private FlatFileItemWriter<MemberInfoDto> createWriter() throws Exception {
+        DelimitedLineAggregator<MemberInfoDto> lineAggregator = new DelimitedLineAggregator<>();
+        lineAggregator.setDelimiter(",");
+        lineAggregator.setFieldExtractor(createFieldExtractor());
+
+        FlatFileItemWriter<MemberInfoDto> writer = new FlatFileItemWriter<>();
+        writer.setName("writer");
+        writer.setResource(new FileSystemResource(output));
+        writer.setEncoding("UTF-8");
+        writer.setLineSeparator("\n");
+        writer.setAppendAllowed(false);
+        writer.setShouldDeleteIfExists(true);
+        writer.setTransactional(false);
+        writer.setLineAggregator(lineAggregator);
+        writer.afterPropertiesSet();
+        return writer;
+    }
+
+    private FieldExtractor<MemberInfoDto> createFieldExtractor() throws Exception {
+        if ("lambda".equals(mapping)) {
+            LambdaFieldExtractor<MemberInfoDto> extractor = new LambdaFieldExtractor<>();
+            extractor.setTargetType(MemberInfoDto.class);
+            extractor.setNames(NAMES);
+            extractor.afterPropertiesSet();
+            return extractor;
+        }
+        BeanWrapperFieldExtractor<MemberInfoDto> extractor = new BeanWrapperFieldExtractor<>();
+        extractor.setNames(NAMES);
+        extractor.afterPropertiesSet();
+        return extractor;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.benchmark;
+
+import org.terasoluna.batch.tutorial.common.dto.MemberInfoDto;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic member_info data for the benchmarks.
+ *
+ * @since 5.5.0
+ */
+public final class MemberInfoData {
+
+    private static final long SEED = 20170101L;
+
+    private MemberInfoData() {
+    }
+
+    public static MemberInfoDto[] generate(int rows, DataShape shape) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        MemberInfoDto[] items = new MemberInfoDto[rows];
+        for (int i = 0; i < rows; i++) {
+            MemberInfoDto item = new MemberInfoDto();
+            item.setId(String.format("%08d", i + 1));
+            item.setType(random.nextBoolean() ? "G" : "N");
+            item.setStatus(random.nextDouble() < shape.getTargetRatio() ? "1" : "0");
+            item.setPoint(shape.getBasePoint() + random.nextInt(100));
+            items[i] = item;
+        }
+        return items;
+    }
+
+    public static MemberInfoDto copy(MemberInfoDto source) {
+        MemberInfoDto item = new MemberInfoDto();
+        item.setId(source.getId());
+        item.setType(source.getType());
+        item.setStatus(source.getStatus());
+        item.setPoint(source.getPoint());
+        return item;
+    }
+
+    public static void writeCsv(Path path, MemberInfoDto[] items, Charset charset) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, charset)) {
+            for (MemberInfoDto item : items) {
+                writer.write(item.getId());
+                writer.write(',');
+                writer.write(item.getType());
+                writer.write(',');
+                writer.write(item.getStatus());
+                writer.write(',');
+                writer.write(Integer.toString(item.getPoint()));
+                writer.write('\n');
+            }
+        }
+    }
+}
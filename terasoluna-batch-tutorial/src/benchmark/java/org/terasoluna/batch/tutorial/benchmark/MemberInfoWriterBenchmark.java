@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.benchmark;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionFactoryBean;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.batch.MyBatisBatchItemWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.terasoluna.batch.tutorial.common.dto.MemberInfoDto;
+import org.terasoluna.batch.tutorial.common.repository.MemberInfoRepository;
+import org.terasoluna.batch.tutorial.common.writer.MemberInfoStagingMergeItemWriter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the member_info writers of the dbaccess jobs against in-memory H2.
+ * <p>
+ * One operation updates all {@code rows} rows of member_info in chunks of {@code chunkSize} items, each chunk in its
+ * own transaction. {@code writer} selects {@code MyBatisBatchItemWriter} with the batch-mode
+ * {@code SqlSessionTemplate}, or the staging table MERGE writer.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MemberInfoWriterBenchmark {
+
+    private static final String CREATE_TABLE_SCRIPT = "sqls/create-member-info-table.sql";
+
+    private static final String INSERT_SQL = "INSERT INTO member_info (id, type, status, point) VALUES (?, ?, ?, ?)";
+
+    @Param({ "10000" })
+    int rows;
+
+    @Param({ "10", "100", "1000" })
+    int chunkSize;
+
+    @Param({ "ALL_TARGET", "MIXED", "NEAR_CAP" })
+    DataShape shape;
+
+    @Param({ "batchUpdate", "stagingMerge" })
+    String writer;
+
+    private SingleConnectionDataSource dataSource;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ItemWriter<MemberInfoDto> itemWriter;
+
+    private List<MemberInfoDto> items;
+
+    @Setup
+    public void setUp() throws Exception {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:writer-benchmark;DB_CLOSE_DELAY=-1", "sa", "", true);
+        ScriptUtils.executeSqlScript(dataSource.getConnection(), new FileSystemResource(CREATE_TABLE_SCRIPT));
+
+        MemberInfoDto[] data = MemberInfoData.generate(rows, shape);
+        new JdbcTemplate(dataSource).batchUpdate(INSERT_SQL, Arrays.asList(data), 1000, (ps, item) -> {
+            ps.setString(1, item.getId());
+            ps.setString(2, item.getType());
+            ps.setString(3, item.getStatus());
+            ps.setInt(4, item.getPoint());
+        });
+        items = Arrays.asList(data);
+
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        itemWriter = "stagingMerge".equals(writer) ? createStagingMergeWriter() : createBatchUpdateWriter();
+    }
+
+    @TearDown
+    public void tearDown() {
+        new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public void writeAll(RowCounter counter) {
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            Chunk<MemberInfoDto> chunk = new Chunk<>(items.subList(from, Math.min(from + chunkSize, items.size())));
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    itemWriter.write(chunk);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        counter.rows += items.size();
+    }
+
+    private ItemWriter<MemberInfoDto> createBatchUpdateWriter() throws Exception {
+        org.apache.ibatis.session.Configuration configuration = new org.apache.ibatis.session.Configuration();
+        configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+        configuration.setDefaultFetchSize(1000);
+        configuration.setDefaultExecutorType(ExecutorType.REUSE);
+        configuration.addMapper(MemberInfoRepository.class);
+
+        SqlSessionFactoryBean sqlSessionFactoryBean = new SqlSessionFactoryBean();
+        sqlSessionFactoryBean.setDataSource(dataSource);
+        sqlSessionFactoryBean.setConfiguration(configuration);
+        SqlSessionFactory sqlSessionFactory = sqlSessionFactoryBean.getObject();
+
+        MyBatisBatchItemWriter<MemberInfoDto> batchItemWriter = new MyBatisBatchItemWriter<>();
+        batchItemWriter.setSqlSessionTemplate(new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH));
+        batchItemWriter.setStatementId(MemberInfoRepository.class.getName() + ".updatePointAndStatus");
+        batchItemWriter.afterPropertiesSet();
+        return batchItemWriter;
+    }
+
+    private ItemWriter<MemberInfoDto> createStagingMergeWriter() {
+        MemberInfoStagingMergeItemWriter stagingMergeWriter = new MemberInfoStagingMergeItemWriter();
+        stagingMergeWriter.setDataSource(dataSource);
+        stagingMergeWriter.setStepExecutionId(1L);
+        stagingMergeWriter.afterPropertiesSet();
+        return stagingMergeWriter;
+    }
+}
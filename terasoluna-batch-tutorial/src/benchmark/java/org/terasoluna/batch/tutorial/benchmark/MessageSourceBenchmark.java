@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.MessageSource;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.terasoluna.batch.tutorial.common.message.CachingMessageSource;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the per-call cost of resolving {@code errors.maxInteger}.
+ * <p>
+ * {@code resourceBundle} is the {@link ResourceBundleMessageSource} used before {@link CachingMessageSource}.
+ * {@code freshArguments} creates the argument array on every call as the error handling code used to, and
+ * {@code constantArguments} passes the same array every time.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageSourceBenchmark {
+
+    private static final String CODE = "errors.maxInteger";
+
+    private static final Object[] ARGS = { "point", "1000000" };
+
+    @Param({ "resourceBundle", "caching" })
+    String messageSourceType;
+
+    private MessageSource messageSource;
+
+    @Setup
+    public void setUp() {
+        if ("caching".equals(messageSourceType)) {
+            CachingMessageSource cachingMessageSource = new CachingMessageSource();
+            cachingMessageSource.setBasenames("i18n/application-messages");
+            messageSource = cachingMessageSource;
+        } else {
+            ResourceBundleMessageSource resourceBundleMessageSource = new ResourceBundleMessageSource();
+            resourceBundleMessageSource.setBasenames("i18n/application-messages");
+            messageSource = resourceBundleMessageSource;
+        }
+    }
+
+    @Benchmark
+    public String freshArguments() {
+        return messageSource.getMessage(CODE, new String[] { "point", "1000000" }, Locale.getDefault());
+    }
+
+    @Benchmark
+    public String constantArguments() {
+        return messageSource.getMessage(CODE, ARGS, Locale.getDefault());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.validator.Validator;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.terasoluna.batch.tutorial.common.dto.MemberInfoDto;
+import org.terasoluna.batch.tutorial.common.listener.AggregatingErrorReporter;
+import org.terasoluna.batch.tutorial.common.message.CachingMessageSource;
+import org.terasoluna.batch.tutorial.common.validator.CompiledBeanValidator;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the {@code PointAddItemProcessor} variants.
+ * <p>
+ * Each processor is created in a small application context with the same message source and validator as the
+ * launch context. Every item is a fresh copy of the generated data, so all variants pay the same copy cost.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PointAddItemProcessorBenchmark {
+
+    private static final Map<String, String> VARIANT_PACKAGES = Map.of(
+            "plain", "org.terasoluna.batch.tutorial.dbaccess.chunk",
+            "validation", "org.terasoluna.batch.tutorial.validation.chunk",
+            "trycatch", "org.terasoluna.batch.tutorial.exceptionhandlingwithtrycatch.chunk");
+
+    private static final int DATA_SIZE = 10000;
+
+    @Param({ "plain", "validation", "trycatch" })
+    String variant;
+
+    @Param({ "10", "100", "1000" })
+    int chunkSize;
+
+    @Param({ "ALL_TARGET", "MIXED", "NEAR_CAP" })
+    DataShape shape;
+
+    private AnnotationConfigApplicationContext context;
+
+    private ItemProcessor<MemberInfoDto, MemberInfoDto> processor;
+
+    private MemberInfoDto[] source;
+
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        context.register(ProcessorBenchmarkConfig.class, AggregatingErrorReporter.class);
+        context.scan(VARIANT_PACKAGES.get(variant));
+        context.refresh();
+        processor = context.getBean("pointAddItemProcessor", ItemProcessor.class);
+        source = MemberInfoData.generate(DATA_SIZE, shape);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void processChunk(RowCounter counter, Blackhole blackhole) throws Exception {
+        for (int i = 0; i < chunkSize; i++) {
+            blackhole.consume(processor.process(MemberInfoData.copy(source[next])));
+            next = next + 1 == source.length ? 0 : next + 1;
+        }
+        counter.rows += chunkSize;
+    }
+
+    /**
+     * Beans shared by the processor variants, as defined in the launch context.
+     */
+    @Configuration
+    static class ProcessorBenchmarkConfig {
+
+        @Bean
+        MessageSource messageSource() {
+            CachingMessageSource messageSource = new CachingMessageSource();
+            messageSource.setBasenames("i18n/application-messages");
+            return messageSource;
+        }
+
+        @Bean
+        LocalValidatorFactoryBean beanValidator() {
+            return new LocalValidatorFactoryBean();
+        }
+
+        @Bean
+        Validator<MemberInfoDto> validator(LocalValidatorFactoryBean beanValidator) {
+            CompiledBeanValidator<MemberInfoDto> validator = new CompiledBeanValidator<>();
+            validator.setType(MemberInfoDto.class);
+            validator.setValidator(beanValidator);
+            return validator;
+        }
+    }
+}
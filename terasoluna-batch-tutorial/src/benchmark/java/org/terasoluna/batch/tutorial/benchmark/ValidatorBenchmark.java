@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.validator.SpringValidator;
+import org.springframework.batch.item.validator.Validator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.terasoluna.batch.tutorial.common.dto.MemberInfoDto;
+import org.terasoluna.batch.tutorial.common.validator.CompiledBeanValidator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the per-item cost of validating {@link MemberInfoDto}.
+ * <p>
+ * {@code spring} is the {@link SpringValidator} used before {@link CompiledBeanValidator}. All the generated items are
+ * valid, which is the path taken by nearly every item of the validation jobs.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    private static final int DATA_SIZE = 10000;
+
+    @Param({ "spring", "compiled" })
+    String validatorType;
+
+    private LocalValidatorFactoryBean beanValidator;
+
+    private Validator<MemberInfoDto> validator;
+
+    private MemberInfoDto[] source;
+
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        beanValidator = new LocalValidatorFactoryBean();
+        beanValidator.afterPropertiesSet();
+        if ("compiled".equals(validatorType)) {
+            CompiledBeanValidator<MemberInfoDto> compiledBeanValidator = new CompiledBeanValidator<>();
+            compiledBeanValidator.setType(MemberInfoDto.class);
+            compiledBeanValidator.setValidator(beanValidator);
+            compiledBeanValidator.afterPropertiesSet();
+            validator = compiledBeanValidator;
+        } else {
+            SpringValidator<MemberInfoDto> springValidator = new SpringValidator<>();
+            springValidator.setValidator(beanValidator);
+            springValidator.afterPropertiesSet();
+            validator = springValidator;
+        }
+        source = MemberInfoData.generate(DATA_SIZE, DataShape.MIXED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        beanValidator.close();
+    }
+
+    @Benchmark
+    public void validate() {
+        validator.validate(source[next]);
+        next = next + 1 == source.length ? 0 : next + 1;
+    }
+}
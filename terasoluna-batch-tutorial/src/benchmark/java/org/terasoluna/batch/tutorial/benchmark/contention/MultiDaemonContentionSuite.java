@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.benchmark.contention;
+
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.ClassUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention suite of several asynchronous batch daemons sharing one admin database.
+ * <p>
+ * {@code daemons} daemons are started as local processes with the same daemon configuration. After {@code warmup}
+ * milliseconds, {@code requests} job requests are inserted in one transaction, and the suite waits until all of them
+ * are {@code EXECUTED}. Every run appends to the report the time to drain the queue, the number of job executions,
+ * which exceeds the number of requests if a request was launched twice, and the median and 95th percentile of the
+ * time from the insertion of a request to the start of its job. Arguments are given as {@code key=value}.
+ * </p>
+ * <ul>
+ * <li>{@code daemons} : comma-separated numbers of daemons. (default: 1,2,4)</li>
+ * <li>{@code requests} : job requests per run. (default: 100)</li>
+ * <li>{@code repeat} : runs per number of daemons. (default: 1)</li>
+ * <li>{@code config} : daemon configuration. (default: the dbaccess chunk configuration of the build style)</li>
+ * <li>{@code job} : name of the requested job. (default: jobPointAddChunk)</li>
+ * <li>{@code pollingInterval} : fixed polling interval of the daemons in milliseconds. (default: 1000)</li>
+ * <li>{@code warmup} : time given to the daemons to start in milliseconds. (default: 15000)</li>
+ * <li>{@code timeout} : maximum time to drain the queue in seconds. (default: 600)</li>
+ * <li>{@code jvmArgs} : space-separated options of the daemon JVMs. (default: -Xmx512m)</li>
+ * <li>{@code workDir} : directory of the stop files and logs. (default: target/contention)</li>
+ * <li>{@code report} : CSV report, appended by every run. (default: {@code <workDir>/report.csv})</li>
+ * </ul>
+ * <p>
+ * The database is the admin database of {@code batch-application.properties}. The {@code admin.jdbc.*} and
+ * {@code jdbc.*} settings can be overridden by arguments or system properties, which are also passed to the daemons.
+ * On H2, only the daemon hosting the database receives the insert trigger, so the other daemons start their jobs on
+ * the fixed-interval poll.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public final class MultiDaemonContentionSuite {
+
+    private static final String DAEMON_CLASS = "org.terasoluna.batch.async.db.AsyncBatchDaemon";
+
+    private static final String REPORT_HEADER = "style,database,daemons,requests,run,drainMillis,requestsPerSec,"
+            + "executions,executedRequests,medianLatencyMillis,p95LatencyMillis";
+
+    private static final String INSERT_SQL = "INSERT INTO batch_job_request (job_name, job_parameter, polling_status,"
+            + " create_date) VALUES (?, ?, 'INIT', CURRENT_TIMESTAMP)";
+
+    private static final String COUNT_EXECUTED_SQL = "SELECT COUNT(*) FROM batch_job_request"
+            + " WHERE job_parameter LIKE ? AND polling_status = 'EXECUTED'";
+
+    private static final String COUNT_EXECUTIONS_SQL = "SELECT COUNT(*) FROM BATCH_JOB_EXECUTION_PARAMS"
+            + " WHERE PARAMETER_NAME = 'contention.run' AND PARAMETER_VALUE = ?";
+
+    private static final String LATENCY_SQL = "SELECT r.create_date, e.START_TIME FROM batch_job_request r"
+            + " JOIN BATCH_JOB_EXECUTION e ON r.job_execution_id = e.JOB_EXECUTION_ID WHERE r.job_parameter LIKE ?";
+
+    private final Properties arguments;
+
+    private final Path workDir;
+
+    private final Path report;
+
+    private final String style;
+
+    private final String url;
+
+    private final String username;
+
+    private final String password;
+
+    MultiDaemonContentionSuite(Properties arguments) throws IOException {
+        this.arguments = arguments;
+        this.workDir = Paths.get(arguments.getProperty("workDir", "target/contention")).toAbsolutePath();
+        this.report = Paths.get(arguments.getProperty("report", workDir.resolve("report.csv").toString()));
+        this.style = ClassUtils.isPresent("org.terasoluna.batch.tutorial.config.LaunchContextConfig", null)
+                ? "javaconfig" : "xmlconfig";
+        Properties applicationProperties = PropertiesLoaderUtils.loadAllProperties("batch-application.properties");
+        this.url = databaseProperty("admin.jdbc.url", applicationProperties);
+        this.username = databaseProperty("admin.jdbc.username", applicationProperties);
+        this.password = databaseProperty("admin.jdbc.password", applicationProperties);
+    }
+
+    private String databaseProperty(String key, Properties applicationProperties) {
+        return arguments.getProperty(key, System.getProperty(key, applicationProperties.getProperty(key)));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Properties arguments = new Properties();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                System.err.println("Usage: MultiDaemonContentionSuite [key=value ...]");
+                System.exit(1);
+            }
+            arguments.setProperty(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        new MultiDaemonContentionSuite(arguments).run();
+    }
+
+    void run() throws Exception {
+        Files.createDirectories(workDir.resolve("logs"));
+        Path noDataScript = workDir.resolve("no-data.sql");
+        Files.write(noDataScript, "-- No data is loaded by the daemons.\n".getBytes(StandardCharsets.UTF_8));
+
+        int requests = Integer.parseInt(arguments.getProperty("requests", "100"));
+        int repeat = Integer.parseInt(arguments.getProperty("repeat", "1"));
+        for (String daemons : arguments.getProperty("daemons", "1,2,4").split(",")) {
+            for (int run = 1; run <= repeat; run++) {
+                runOnce(Integer.parseInt(daemons.trim()), requests, run, noDataScript);
+            }
+        }
+        System.out.println("Report: " + report);
+    }
+
+    private void runOnce(int daemons, int requests, int run, Path noDataScript) throws Exception {
+        List<Process> processes = new ArrayList<>();
+        List<Path> stopFiles = new ArrayList<>();
+        try {
+            for (int i = 0; i < daemons; i++) {
+                Path stopFile = workDir.resolve("stop-" + i);
+                Files.deleteIfExists(stopFile);
+                stopFiles.add(stopFile);
+                processes.add(startDaemon(daemons, run, i, stopFile, noDataScript));
+            }
+            TimeUnit.MILLISECONDS.sleep(Long.parseLong(arguments.getProperty("warmup", "15000")));
+
+            String runId = Long.toString(System.currentTimeMillis());
+            String parameterPattern = "contention.run=" + runId + ",%";
+            try (Connection con = DriverManager.getConnection(url, username, password)) {
+                con.setAutoCommit(false);
+                String database = con.getMetaData().getDatabaseProductName();
+
+                long start = System.nanoTime();
+                insertRequests(con, requests, runId);
+                long executed = waitForExecution(con, requests, parameterPattern);
+                long drainMillis = (System.nanoTime() - start) / 1000000;
+
+                record(database, daemons, requests, run, drainMillis, countExecutions(con, runId), executed,
+                        latencies(con, parameterPattern));
+            }
+        } finally {
+            for (Path stopFile : stopFiles) {
+                Files.write(stopFile, new byte[0]);
+            }
+            for (Process process : processes) {
+                if (!process.waitFor(60, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    private Process startDaemon(int daemons, int run, int index, Path stopFile, Path noDataScript)
+            throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(arguments.getProperty("jvmArgs", "-Xmx512m").trim().split("\\s+")));
+        command.add("-classpath");
+        command.add(System.getProperty("java.class.path"));
+        command.add("-Dasync-batch-daemon.polling-stop-file-path=" + stopFile);
+        command.add("-Dasync-batch-daemon.polling-interval=" + arguments.getProperty("pollingInterval", "1000"));
+        command.add("-Dtutorial.insert-data.script=" + noDataScript.toUri());
+        for (String key : Arrays.asList("admin.jdbc.driver", "admin.jdbc.url", "admin.jdbc.username",
+                "admin.jdbc.password", "jdbc.driver", "jdbc.url", "jdbc.username", "jdbc.password")) {
+            String value = arguments.getProperty(key, System.getProperty(key));
+            if (value != null) {
+                command.add("-D" + key + "=" + value);
+            }
+        }
+        command.add(DAEMON_CLASS);
+        command.add(arguments.getProperty("config", "javaconfig".equals(style)
+                ? "org.terasoluna.batch.tutorial.config.asyncJobExecution.AsyncDbAccessChunkConfig"
+                : "META-INF/asyncJobExecution/async-dbaccess-chunk.xml"));
+
+        File log = workDir.resolve("logs").resolve(String.format("%s-%d-%d-daemon%d.log", style, daemons, run,
+                index)).toFile();
+        return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+    }
+
+    private void insertRequests(Connection con, int requests, String runId) throws SQLException {
+        String job = arguments.getProperty("job", "jobPointAddChunk");
+        try (PreparedStatement statement = con.prepareStatement(INSERT_SQL)) {
+            for (int i = 0; i < requests; i++) {
+                statement.setString(1, job);
+                // Identifies a new job instance for every request.
+                statement.setString(2, "contention.run=" + runId + ",contention.request=" + i);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        con.commit();
+    }
+
+    private long waitForExecution(Connection con, int requests, String parameterPattern) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Long.parseLong(arguments.getProperty("timeout",
+                "600")));
+        long executed = 0;
+        while (System.nanoTime() < deadline) {
+            executed = queryCount(con, COUNT_EXECUTED_SQL, parameterPattern);
+            if (executed >= requests) {
+                break;
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        return executed;
+    }
+
+    private long countExecutions(Connection con, String runId) throws SQLException {
+        return queryCount(con, COUNT_EXECUTIONS_SQL, runId);
+    }
+
+    private static long queryCount(Connection con, String sql, String parameter) throws SQLException {
+        try (PreparedStatement statement = con.prepareStatement(sql)) {
+            statement.setString(1, parameter);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            } finally {
+                con.commit();
+            }
+        }
+    }
+
+    private static List<Long> latencies(Connection con, String parameterPattern) throws SQLException {
+        List<Long> latencies = new ArrayList<>();
+        try (PreparedStatement statement = con.prepareStatement(LATENCY_SQL)) {
+            statement.setString(1, parameterPattern);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getTimestamp(1) != null && rs.getTimestamp(2) != null) {
+                        latencies.add(rs.getTimestamp(2).getTime() - rs.getTimestamp(1).getTime());
+                    }
+                }
+            } finally {
+                con.commit();
+            }
+        }
+        Collections.sort(latencies);
+        return latencies;
+    }
+
+    private static long percentile(List<Long> sortedValues, int percent) {
+        if (sortedValues.isEmpty()) {
+            return -1;
+        }
+        return sortedValues.get(Math.min(sortedValues.size() - 1, sortedValues.size() * percent / 100));
+    }
+
+    private void record(String database, int daemons, int requests, int run, long drainMillis, long executions,
+            long executed, List<Long> latencies) throws IOException {
+        String line = String.join(",", style, database, Integer.toString(daemons), Integer.toString(requests),
+                Integer.toString(run), Long.toString(drainMillis), Long.toString(drainMillis > 0 ? requests * 1000L
+                        / drainMillis : 0), Long.toString(executions), Long.toString(executed), Long.toString(
+                                percentile(latencies, 50)), Long.toString(percentile(latencies, 95)));
+
+        boolean newReport = !Files.exists(report);
+        try (Writer writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)) {
+            if (newReport) {
+                writer.write(REPORT_HEADER);
+                writer.write('\n');
+            }
+            writer.write(line);
+            writer.write('\n');
+        }
+        System.out.println(line);
+    }
+}
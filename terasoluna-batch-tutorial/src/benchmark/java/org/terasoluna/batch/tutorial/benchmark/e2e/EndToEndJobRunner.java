@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.benchmark.e2e;
+
+import org.springframework.batch.core.launch.support.CommandLineJobRunner;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * Child JVM entry point of {@link EndToEndSuite}.
+ * <p>
+ * Launches a job with {@link CommandLineJobRunner} and the same arguments, and then writes the metrics of the run to
+ * the file given by the system property {@code e2e.result}. The job time and the counts are read from the job
+ * repository, and the heap, GC and database metrics from this JVM.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public final class EndToEndJobRunner {
+
+    private static final String LAST_JOB_EXECUTION_SQL = "SELECT JOB_EXECUTION_ID, STATUS, START_TIME, END_TIME"
+            + " FROM BATCH_JOB_EXECUTION WHERE JOB_EXECUTION_ID = (SELECT MAX(JOB_EXECUTION_ID) FROM BATCH_JOB_EXECUTION)";
+
+    // The manager step of a partitioned job holds the sum of its workers, so the maximum is the count of the job.
+    private static final String STEP_COUNT_SQL = "SELECT MAX(READ_COUNT), MAX(WRITE_COUNT)"
+            + " FROM BATCH_STEP_EXECUTION WHERE JOB_EXECUTION_ID = ?";
+
+    private EndToEndJobRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] exitCode = new int[1];
+        CommandLineJobRunner.presetSystemExiter(status -> exitCode[0] = status);
+
+        long start = System.nanoTime();
+        CommandLineJobRunner.main(args);
+        long runnerMillis = (System.nanoTime() - start) / 1000000;
+
+        Properties result = new Properties();
+        result.setProperty("exitCode", Integer.toString(exitCode[0]));
+        result.setProperty("runnerMillis", Long.toString(runnerMillis));
+        result.setProperty("jobMillis", Long.toString(runnerMillis));
+        collectJvmMetrics(result);
+        collectDatabaseMetrics(result);
+        try {
+            collectJobExecution(result);
+        } catch (SQLException e) {
+            result.setProperty("status", "UNKNOWN");
+            System.err.println("The job repository could not be read. " + e);
+        }
+
+        String resultFile = System.getProperty("e2e.result");
+        if (resultFile != null) {
+            try (OutputStream out = Files.newOutputStream(Paths.get(resultFile))) {
+                result.store(out, null);
+            }
+        }
+        System.exit(exitCode[0]);
+    }
+
+    private static void collectJvmMetrics(Properties result) {
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+        }
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            // Concurrent cycles run beside the application and are not pauses.
+            if (collector.getName().contains("Concurrent")) {
+                continue;
+            }
+            gcCount += Math.max(0, collector.getCollectionCount());
+            gcMillis += Math.max(0, collector.getCollectionTime());
+        }
+        result.setProperty("peakHeapBytes", Long.toString(peakHeap));
+        result.setProperty("gcCount", Long.toString(gcCount));
+        result.setProperty("gcMillis", Long.toString(gcMillis));
+    }
+
+    private static void collectDatabaseMetrics(Properties result) {
+        result.setProperty("dbStatements", Long.toString(CountingDriver.STATEMENTS.get()));
+        result.setProperty("dbBatches", Long.toString(CountingDriver.BATCHES.get()));
+        result.setProperty("dbCommits", Long.toString(CountingDriver.COMMITS.get()));
+        result.setProperty("dbRollbacks", Long.toString(CountingDriver.ROLLBACKS.get()));
+    }
+
+    private static void collectJobExecution(Properties result) throws IOException, SQLException {
+        Properties properties = PropertiesLoaderUtils.loadAllProperties("batch-application.properties");
+        try (Connection connection = DriverManager.getConnection(property(properties, "admin.jdbc.url"), property(
+                properties, "admin.jdbc.username"), property(properties, "admin.jdbc.password"));
+                Statement statement = connection.createStatement();
+                ResultSet execution = statement.executeQuery(LAST_JOB_EXECUTION_SQL)) {
+            if (!execution.next()) {
+                result.setProperty("status", "UNKNOWN");
+                return;
+            }
+            result.setProperty("status", execution.getString("STATUS"));
+            if (execution.getTimestamp("START_TIME") != null && execution.getTimestamp("END_TIME") != null) {
+                result.setProperty("jobMillis", Long.toString(execution.getTimestamp("END_TIME").getTime()
+                        - execution.getTimestamp("START_TIME").getTime()));
+            }
+            try (PreparedStatement counts = connection.prepareStatement(STEP_COUNT_SQL)) {
+                counts.setLong(1, execution.getLong("JOB_EXECUTION_ID"));
+                try (ResultSet count = counts.executeQuery()) {
+                    if (count.next()) {
+                        result.setProperty("readCount", Long.toString(count.getLong(1)));
+                        result.setProperty("writeCount", Long.toString(count.getLong(2)));
+                    }
+                }
+            }
+        }
+    }
+
+    private static String property(Properties properties, String key) {
+        return System.getProperty(key, properties.getProperty(key));
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.benchmark.e2e;
+
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.ClassUtils;
+import org.terasoluna.batch.tutorial.common.tools.MemberInfoDataGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * End-to-end throughput suite of the tutorial jobs.
+ * <p>
+ * Every job is launched in its own JVM through {@link EndToEndJobRunner} against data generated by
+ * {@link MemberInfoDataGenerator}, once per data size. The dbaccess, validation and exception handling jobs read the
+ * job database, which is reloaded before every run, and the fileaccess jobs read a generated CSV file. Arguments are
+ * given as {@code key=value}.
+ * </p>
+ * <ul>
+ * <li>{@code sizes} : comma-separated row counts. (default: 10000,100000,1000000)</li>
+ * <li>{@code jobs} : comma-separated job paths under META-INF/jobs without {@code .xml}. (default: the chunk and
+ * tasklet jobs of the five tutorial packages)</li>
+ * <li>{@code repeat} : runs per job and size. (default: 1)</li>
+ * <li>{@code jvmArgs} : space-separated options of the job JVMs. (default: -Xmx1g)</li>
+ * <li>{@code workDir} : directory of the data, output and logs. (default: target/e2e)</li>
+ * <li>{@code report} : CSV report, appended by every run. (default: {@code <workDir>/report.csv})</li>
+ * </ul>
+ * <p>
+ * The other arguments, such as {@code seed} or {@code goldRatio}, are passed to the generator. The config style of the
+ * build is recorded in every line of the report, so running the suite once with each of the {@code javaconfig} and
+ * {@code xmlconfig} profiles into the same report compares both styles.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public final class EndToEndSuite {
+
+    private static final List<String> DEFAULT_JOBS = Arrays.asList("dbaccess/jobPointAddChunk",
+            "dbaccess/jobPointAddTasklet", "fileaccess/jobPointAddChunk", "fileaccess/jobPointAddTasklet",
+            "validation/jobPointAddChunk", "validation/jobPointAddTasklet",
+            "exceptionhandlingwithlistener/jobPointAddChunk", "exceptionhandlingwithlistener/jobPointAddTasklet",
+            "exceptionhandlingwithtrycatch/jobPointAddChunk", "exceptionhandlingwithtrycatch/jobPointAddTasklet");
+
+    private static final List<String> SUITE_KEYS = Arrays.asList("sizes", "jobs", "repeat", "jvmArgs", "workDir",
+            "report");
+
+    private static final String REPORT_HEADER = "style,job,rows,run,exitCode,status,wallMillis,jobMillis,readCount,"
+            + "writeCount,rowsPerSec,peakHeapMB,gcCount,gcMillis,dbStatements,dbBatches,dbCommits,dbRollbacks";
+
+    private final Properties arguments;
+
+    private final Path workDir;
+
+    private final Path report;
+
+    private final String style;
+
+    private final Properties applicationProperties;
+
+    private final List<String> generatorArguments = new ArrayList<>();
+
+    EndToEndSuite(Properties arguments) throws IOException {
+        this.arguments = arguments;
+        this.workDir = Paths.get(arguments.getProperty("workDir", "target/e2e")).toAbsolutePath();
+        this.report = Paths.get(arguments.getProperty("report", workDir.resolve("report.csv").toString()));
+        this.style = ClassUtils.isPresent("org.terasoluna.batch.tutorial.config.LaunchContextConfig", null)
+                ? "javaconfig" : "xmlconfig";
+        this.applicationProperties = PropertiesLoaderUtils.loadAllProperties("batch-application.properties");
+        for (String key : arguments.stringPropertyNames()) {
+            if (!SUITE_KEYS.contains(key)) {
+                generatorArguments.add(key + "=" + arguments.getProperty(key));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Properties arguments = new Properties();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                System.err.println("Usage: EndToEndSuite [key=value ...]");
+                System.exit(1);
+            }
+            arguments.setProperty(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        new EndToEndSuite(arguments).run();
+    }
+
+    void run() throws Exception {
+        Files.createDirectories(workDir.resolve("output"));
+        Files.createDirectories(workDir.resolve("logs"));
+        Path noDataScript = workDir.resolve("no-data.sql");
+        Files.write(noDataScript, "-- The data is loaded by EndToEndSuite.\n".getBytes(StandardCharsets.UTF_8));
+
+        List<String> jobs = arguments.containsKey("jobs") ? Arrays.asList(arguments.getProperty("jobs").split(","))
+                : DEFAULT_JOBS;
+        int repeat = Integer.parseInt(arguments.getProperty("repeat", "1"));
+
+        for (String size : arguments.getProperty("sizes", "10000,100000,1000000").split(",")) {
+            int rows = Integer.parseInt(size.trim());
+            Path inputFile = workDir.resolve("input-member-info-" + rows + ".csv");
+            if (jobs.stream().anyMatch(EndToEndSuite::isFileJob)) {
+                generate(rows, "csv=" + inputFile);
+            }
+            for (String job : jobs) {
+                for (int run = 1; run <= repeat; run++) {
+                    if (!isFileJob(job)) {
+                        generate(rows);
+                    }
+                    Properties result = launch(job.trim(), rows, run, inputFile, noDataScript);
+                    record(job.trim(), rows, run, result);
+                }
+            }
+        }
+        System.out.println("Report: " + report);
+    }
+
+    private static boolean isFileJob(String job) {
+        return job.trim().startsWith("fileaccess/");
+    }
+
+    private void generate(int rows, String... extraArguments) throws Exception {
+        List<String> args = new ArrayList<>(generatorArguments);
+        args.add("rows=" + rows);
+        args.addAll(Arrays.asList(extraArguments));
+        MemberInfoDataGenerator.main(args.toArray(new String[0]));
+    }
+
+    private Properties launch(String job, int rows, int run, Path inputFile, Path noDataScript) throws Exception {
+        String name = String.format("%s-%s-%d-%d", style, job.replace('/', '-'), rows, run);
+        Path resultFile = workDir.resolve("logs").resolve(name + ".properties");
+        Files.deleteIfExists(resultFile);
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(arguments.getProperty("jvmArgs", "-Xmx1g").trim().split("\\s+")));
+        command.add("-classpath");
+        command.add(System.getProperty("java.class.path"));
+        command.add("-Djdbc.driver=" + CountingDriver.class.getName());
+        command.add("-Djdbc.url=" + CountingDriver.URL_PREFIX + applicationProperties.getProperty("jdbc.url"));
+        command.add("-Dtutorial.insert-data.script=" + noDataScript.toUri());
+        command.add("-De2e.result=" + resultFile);
+        command.add(EndToEndJobRunner.class.getName());
+        command.add("META-INF/jobs/" + job + ".xml");
+        command.add(job.substring(job.lastIndexOf('/') + 1));
+        if (isFileJob(job)) {
+            command.add("inputFile=" + inputFile);
+            command.add("outputFile=" + workDir.resolve("output").resolve(name + ".csv"));
+        }
+        // Identifies a new job instance, so that the same job can be launched again.
+        command.add("runId=" + System.currentTimeMillis());
+
+        File log = workDir.resolve("logs").resolve(name + ".log").toFile();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+        int exitCode = process.waitFor();
+        long wallMillis = (System.nanoTime() - start) / 1000000;
+
+        Properties result = new Properties();
+        if (Files.exists(resultFile)) {
+            try (InputStream in = Files.newInputStream(resultFile)) {
+                result.load(in);
+            }
+        }
+        result.setProperty("exitCode", Integer.toString(exitCode));
+        result.setProperty("wallMillis", Long.toString(wallMillis));
+        return result;
+    }
+
+    private void record(String job, int rows, int run, Properties result) throws IOException {
+        long jobMillis = Long.parseLong(result.getProperty("jobMillis", result.getProperty("wallMillis")));
+        long peakHeapBytes = Long.parseLong(result.getProperty("peakHeapBytes", "0"));
+        String line = String.join(",", style, job, Integer.toString(rows), Integer.toString(run),
+                result.getProperty("exitCode"), result.getProperty("status", "UNKNOWN"),
+                result.getProperty("wallMillis"), Long.toString(jobMillis), result.getProperty("readCount", ""),
+                result.getProperty("writeCount", ""), Long.toString(jobMillis > 0 ? rows * 1000L / jobMillis : 0),
+                Long.toString(peakHeapBytes / (1024 * 1024)), result.getProperty("gcCount", ""),
+                result.getProperty("gcMillis", ""), result.getProperty("dbStatements", ""),
+                result.getProperty("dbBatches", ""), result.getProperty("dbCommits", ""),
+                result.getProperty("dbRollbacks", ""));
+
+        boolean newReport = !Files.exists(report);
+        try (Writer writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)) {
+            if (newReport) {
+                writer.write(REPORT_HEADER);
+                writer.write('\n');
+            }
+            writer.write(line);
+            writer.write('\n');
+        }
+        System.out.println(line);
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.benchmark.executor;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.ClassUtils;
+import org.terasoluna.batch.tutorial.common.concurrent.TaskExecutorFactoryBean;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Suite comparing the launch executors of the asynchronous batch daemon with I/O-bound jobs.
+ * <p>
+ * Every combination of {@code types} and {@code concurrency} runs in its own JVM, so that the footprint of one run
+ * does not hide the next one. A run submits {@code concurrency * rounds} jobs to a {@link TaskExecutorFactoryBean} of
+ * the type with a concurrency limit of {@code concurrency}, and waits for all of them. A job descends
+ * {@code stackDepth} frames, as a job execution does through Spring Batch, and then makes {@code ioCalls} blocking
+ * calls selected by {@code io}:
+ * </p>
+ * <ul>
+ * <li>{@code jdbc} : the job borrows one connection from a DBCP pool of {@code poolSize} connections to the job
+ * database, as from {@code jobDataSource}, and executes {@code query} {@code ioCalls} times on it. The JDBC driver
+ * blocks inside its own locks, so this shows the carrier pinning of virtual threads on the daemon's actual
+ * workload.</li>
+ * <li>{@code sleep} : the job sleeps {@code ioCalls} times for {@code ioMillis} milliseconds. A sleep always unmounts a
+ * virtual thread, so this is the best case of virtual threads.</li>
+ * </ul>
+ * <p>
+ * Every run appends to the report the throughput, the peak resident set size and heap usage above the level before
+ * the run, and the peak number of platform threads. Arguments are given as {@code key=value}.
+ * </p>
+ * <ul>
+ * <li>{@code types} : comma-separated executor types. (default: platform, and virtual if the java21 profile is
+ * active)</li>
+ * <li>{@code concurrency} : comma-separated concurrency limits. (default: 3,50,500)</li>
+ * <li>{@code rounds} : jobs per concurrent slot. (default: 20)</li>
+ * <li>{@code io} : kind of blocking calls, jdbc or sleep. (default: jdbc)</li>
+ * <li>{@code ioCalls} : blocking calls per job. (default: 10)</li>
+ * <li>{@code ioMillis} : duration of a sleep in milliseconds. (default: 20)</li>
+ * <li>{@code query} : statement of the jdbc calls. (default: SELECT COUNT(*) FROM member_info)</li>
+ * <li>{@code poolSize} : maximum connections of the jdbc pool, as the maxTotal of jobDataSource. (default: 10)</li>
+ * <li>{@code jdbc.driver}, {@code jdbc.url}, {@code jdbc.username}, {@code jdbc.password} : job database, also read
+ * from system properties. (default: the settings of {@code batch-application.properties})</li>
+ * <li>{@code stackDepth} : frames below the blocking calls. (default: 200)</li>
+ * <li>{@code repeat} : runs per combination. (default: 3)</li>
+ * <li>{@code jvmArgs} : space-separated options of the JVMs of the runs. (default: -Xmx1g)</li>
+ * <li>{@code report} : CSV report, appended by every run. (default: target/executor/report.csv)</li>
+ * </ul>
+ * <p>
+ * With {@code io=jdbc}, the tables of the tutorial must have been created in the job database, for example by
+ * launching a dbaccess job once. The resident set size is read from {@code /proc/self/status} and reported as -1 on
+ * other systems.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public final class LaunchExecutorSuite {
+
+    private static final String REPORT_HEADER = "type,io,concurrency,jobs,run,elapsedMillis,jobsPerSec,peakRssMb,"
+            + "peakHeapMb,peakPlatformThreads";
+
+    private static final List<String> DATABASE_KEYS = Arrays.asList("jdbc.driver", "jdbc.url", "jdbc.username",
+            "jdbc.password");
+
+    private static final String RESULT_PREFIX = "RESULT,";
+
+    private static final long SAMPLING_INTERVAL_MILLIS = 10;
+
+    private final Properties arguments;
+
+    private final Path report;
+
+    private final String io;
+
+    private final Properties databaseProperties = new Properties();
+
+    LaunchExecutorSuite(Properties arguments) throws IOException {
+        this.arguments = arguments;
+        this.report = Paths.get(arguments.getProperty("report", "target/executor/report.csv")).toAbsolutePath();
+        this.io = arguments.getProperty("io", "jdbc");
+        Properties applicationProperties = PropertiesLoaderUtils.loadAllProperties("batch-application.properties");
+        for (String key : DATABASE_KEYS) {
+            String value = arguments.getProperty(key, System.getProperty(key, applicationProperties.getProperty(key)));
+            if (value != null) {
+                databaseProperties.setProperty(key, value);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Properties arguments = new Properties();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                System.err.println("Usage: LaunchExecutorSuite [key=value ...]");
+                System.exit(1);
+            }
+            arguments.setProperty(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        LaunchExecutorSuite suite = new LaunchExecutorSuite(arguments);
+        if (arguments.containsKey("type")) {
+            System.out.println(RESULT_PREFIX + suite.runOnce(arguments.getProperty("type"), Integer.parseInt(
+                    arguments.getProperty("concurrency"))));
+        } else {
+            suite.run();
+        }
+    }
+
+    void run() throws Exception {
+        Files.createDirectories(report.getParent());
+        String defaultTypes = ClassUtils.isPresent(TaskExecutorFactoryBean.VIRTUAL_THREAD_TASK_EXECUTOR_CLASS_NAME,
+                null) ? "platform,virtual" : "platform";
+        int repeat = Integer.parseInt(arguments.getProperty("repeat", "3"));
+        for (String concurrency : arguments.getProperty("concurrency", "3,50,500").split(",")) {
+            for (String type : arguments.getProperty("types", defaultTypes).split(",")) {
+                for (int run = 1; run <= repeat; run++) {
+                    String result = fork(type.trim(), concurrency.trim());
+                    if (result == null) {
+                        System.err.println("The run of " + type + " at " + concurrency + " failed.");
+                        continue;
+                    }
+                    int separator = result.indexOf(',');
+                    record(String.join(",", type.trim(), io, concurrency.trim(), result.substring(0, separator),
+                            Integer.toString(run), result.substring(separator + 1)));
+                }
+            }
+        }
+        System.out.println("Report: " + report);
+    }
+
+    private String fork(String type, String concurrency) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(arguments.getProperty("jvmArgs", "-Xmx1g").trim().split("\\s+")));
+        command.add("-classpath");
+        command.add(System.getProperty("java.class.path"));
+        command.add(LaunchExecutorSuite.class.getName());
+        for (String key : arguments.stringPropertyNames()) {
+            if (!Arrays.asList("types", "concurrency", "repeat", "jvmArgs", "report").contains(key)
+                    && !DATABASE_KEYS.contains(key)) {
+                command.add(key + "=" + arguments.getProperty(key));
+            }
+        }
+        for (String key : databaseProperties.stringPropertyNames()) {
+            command.add(key + "=" + databaseProperties.getProperty(key));
+        }
+        command.add("type=" + type);
+        command.add("concurrency=" + concurrency);
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String result = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                StandardCharsets.UTF_8))) {
+            for (String line; (line = reader.readLine()) != null;) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    result = line.substring(RESULT_PREFIX.length());
+                } else {
+                    System.out.println(line);
+                }
+            }
+        }
+        return process.waitFor() == 0 ? result : null;
+    }
+
+    /**
+     * Runs the jobs of one combination in this JVM.
+     *
+     * @return jobs,elapsedMillis,jobsPerSec,peakRssMb,peakHeapMb,peakPlatformThreads
+     */
+    String runOnce(String type, int concurrency) throws Exception {
+        int jobs = concurrency * Integer.parseInt(arguments.getProperty("rounds", "20"));
+        int ioCalls = Integer.parseInt(arguments.getProperty("ioCalls", "10"));
+        int stackDepth = Integer.parseInt(arguments.getProperty("stackDepth", "200"));
+
+        TaskExecutorFactoryBean factory = new TaskExecutorFactoryBean();
+        factory.setType(type);
+        factory.setConcurrencyLimit(concurrency);
+        factory.setThreadNamePrefix("job-");
+        factory.afterPropertiesSet();
+        ThreadPoolTaskExecutor executor = factory.getObject();
+        BasicDataSource dataSource = null;
+        try {
+            BlockingCalls blockingCalls;
+            if ("jdbc".equals(io)) {
+                dataSource = createDataSource();
+                String query = arguments.getProperty("query", "SELECT COUNT(*) FROM member_info");
+                blockingCalls = jdbcCalls(dataSource, query, ioCalls);
+            } else if ("sleep".equals(io)) {
+                blockingCalls = sleepCalls(ioCalls, Long.parseLong(arguments.getProperty("ioMillis", "20")));
+            } else {
+                throw new IllegalArgumentException("Unknown io. [" + io + "]");
+            }
+
+            // Warms up the executor, the connection pool and the job code before the baseline.
+            runJobs(executor, concurrency, stackDepth, blockingCalls);
+            System.gc();
+            long baseRss = residentSetSize();
+            long baseHeap = usedHeap();
+            ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+
+            Sampler sampler = new Sampler();
+            Thread samplerThread = new Thread(sampler, "footprint-sampler");
+            samplerThread.setDaemon(true);
+            samplerThread.start();
+            long start = System.nanoTime();
+            runJobs(executor, jobs, stackDepth, blockingCalls);
+            long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1000000);
+            sampler.stop.set(true);
+            samplerThread.join();
+
+            long peakRssMb = baseRss < 0 ? -1 : (sampler.peakRss - baseRss) >> 20;
+            long peakHeapMb = (sampler.peakHeap - baseHeap) >> 20;
+            int peakPlatformThreads = ManagementFactory.getThreadMXBean().getPeakThreadCount();
+            return String.join(",", Integer.toString(jobs), Long.toString(elapsedMillis), Long.toString(jobs * 1000L
+                    / elapsedMillis), Long.toString(peakRssMb), Long.toString(peakHeapMb), Integer.toString(
+                            peakPlatformThreads));
+        } finally {
+            factory.destroy();
+            if (dataSource != null) {
+                dataSource.close();
+            }
+        }
+    }
+
+    private BasicDataSource createDataSource() {
+        BasicDataSource dataSource = new BasicDataSource();
+        dataSource.setDriverClassName(databaseProperties.getProperty("jdbc.driver"));
+        dataSource.setUrl(databaseProperties.getProperty("jdbc.url"));
+        dataSource.setUsername(databaseProperties.getProperty("jdbc.username"));
+        dataSource.setPassword(databaseProperties.getProperty("jdbc.password"));
+        dataSource.setMaxTotal(Integer.parseInt(arguments.getProperty("poolSize", "10")));
+        dataSource.setMinIdle(1);
+        dataSource.setDefaultAutoCommit(false);
+        return dataSource;
+    }
+
+    private static BlockingCalls jdbcCalls(BasicDataSource dataSource, String query, int ioCalls) {
+        return () -> {
+            try (Connection connection = dataSource.getConnection();
+                    PreparedStatement statement = connection.prepareStatement(query)) {
+                for (int i = 0; i < ioCalls; i++) {
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            // Fetches every row as a reader does.
+                        }
+                    }
+                }
+                connection.rollback();
+            }
+        };
+    }
+
+    private static BlockingCalls sleepCalls(int ioCalls, long ioMillis) {
+        return () -> {
+            for (int i = 0; i < ioCalls; i++) {
+                TimeUnit.MILLISECONDS.sleep(ioMillis);
+            }
+        };
+    }
+
+    private static void runJobs(ThreadPoolTaskExecutor executor, int jobs, int stackDepth,
+            BlockingCalls blockingCalls) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(jobs);
+        AtomicInteger failures = new AtomicInteger();
+        Exception[] firstFailure = new Exception[1];
+        for (int i = 0; i < jobs; i++) {
+            executor.execute(() -> {
+                try {
+                    descend(stackDepth, blockingCalls);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    if (failures.getAndIncrement() == 0) {
+                        firstFailure[0] = e;
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " of " + jobs + " jobs failed.", firstFailure[0]);
+        }
+    }
+
+    private static int descend(int depth, BlockingCalls blockingCalls) throws Exception {
+        if (depth > 0) {
+            return descend(depth - 1, blockingCalls) + 1;
+        }
+        blockingCalls.call();
+        return 0;
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long residentSetSize() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"), StandardCharsets.US_ASCII)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) << 10;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not available on this system.
+        }
+        return -1;
+    }
+
+    private void record(String line) throws IOException {
+        boolean newReport = !Files.exists(report);
+        try (Writer writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)) {
+            if (newReport) {
+                writer.write(REPORT_HEADER);
+                writer.write('\n');
+            }
+            writer.write(line);
+            writer.write('\n');
+        }
+        System.out.println(line);
+    }
+
+    /**
+     * Blocking calls made by a job at the bottom of its stack.
+     */
+    @FunctionalInterface
+    private interface BlockingCalls {
+
+        void call() throws Exception;
+    }
+
+    private static final class Sampler implements Runnable {
+
+        private final AtomicBoolean stop = new AtomicBoolean();
+
+        private volatile long peakRss;
+
+        private volatile long peakHeap;
+
+        @Override
+        public void run() {
+            while (!stop.get()) {
+                peakRss = Math.max(peakRss, residentSetSize());
+                peakHeap = Math.max(peakHeap, usedHeap());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(SAMPLING_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.concurrent;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * {@link ThreadPoolTaskExecutor} running every task on a new virtual thread.
+ * <p>
+ * At most {@code maxPoolSize} tasks run at a time. Up to {@code queueCapacity} more tasks wait in a FIFO queue, and the
+ * next ones are rejected as by the pool of platform threads. A new task is only started directly while nothing is
+ * waiting, and a virtual thread finishing its task runs the oldest waiting one, so waiting tasks run in submission
+ * order. After a {@code shutdownNow}, the interrupted virtual threads discard the waiting tasks, as the pool does.
+ * {@link #getActiveCount()} counts the running tasks, so the daemon sizes its polls and reports its load the same way
+ * with both executors.
+ * </p>
+ * <p>
+ * A virtual thread blocked inside a {@code synchronized} block, as in some JDBC drivers, stays pinned to its carrier
+ * thread. The number of carrier threads is set by {@code -Djdk.virtualThreadScheduler.parallelism}.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class VirtualThreadTaskExecutor extends ThreadPoolTaskExecutor {
+
+    private final Object lock = new Object();
+
+    private final Deque<Runnable> waiting = new ArrayDeque<>();
+
+    private int runningCount;
+
+    private int concurrencyLimit;
+
+    private int queueCapacity = Integer.MAX_VALUE;
+
+    private ExecutorService virtualThreadExecutor;
+
+    @Override
+    public void setQueueCapacity(int queueCapacity) {
+        super.setQueueCapacity(queueCapacity);
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    protected ExecutorService initializeExecutor(ThreadFactory threadFactory,
+            RejectedExecutionHandler rejectedExecutionHandler) {
+        concurrencyLimit = getMaxPoolSize();
+        virtualThreadExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(getThreadNamePrefix(), 1)
+                .factory());
+        return virtualThreadExecutor;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Assert.state(virtualThreadExecutor != null, "VirtualThreadTaskExecutor not initialized");
+        synchronized (lock) {
+            if (runningCount == concurrencyLimit) {
+                if (waiting.size() >= queueCapacity) {
+                    throw new TaskRejectedException("Executor [" + this + "] did not accept task: " + task + ". "
+                            + concurrencyLimit + " tasks are running and " + queueCapacity + " are waiting.");
+                }
+                waiting.addLast(task);
+                return;
+            }
+            runningCount++;
+        }
+        try {
+            virtualThreadExecutor.execute(() -> run(task));
+        } catch (RejectedExecutionException e) {
+            synchronized (lock) {
+                runningCount--;
+            }
+            throw new TaskRejectedException("Executor [" + virtualThreadExecutor + "] did not accept task: " + task,
+                    e);
+        }
+    }
+
+    private void run(Runnable task) {
+        Runnable next = task;
+        while (next != null) {
+            try {
+                next.run();
+            } catch (Throwable e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+            boolean stopped = Thread.interrupted() && virtualThreadExecutor.isShutdown();
+            synchronized (lock) {
+                if (stopped) {
+                    // Shut down now, so the waiting tasks are discarded as the queue of a pool.
+                    waiting.clear();
+                }
+                next = waiting.pollFirst();
+                if (next == null) {
+                    runningCount--;
+                }
+            }
+        }
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        FutureTask<Object> future = new FutureTask<>(task, null);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public ListenableFuture<?> submitListenable(Runnable task) {
+        ListenableFutureTask<Object> future = new ListenableFutureTask<>(task, null);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public <T> ListenableFuture<T> submitListenable(Callable<T> task) {
+        ListenableFutureTask<T> future = new ListenableFutureTask<>(task);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public int getActiveCount() {
+        synchronized (lock) {
+            return runningCount;
+        }
+    }
+
+    @Override
+    public int getPoolSize() {
+        synchronized (lock) {
+            return runningCount + waiting.size();
+        }
+    }
+}
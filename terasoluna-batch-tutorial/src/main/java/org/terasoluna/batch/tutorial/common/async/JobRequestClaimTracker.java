@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.async;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MyBatis interceptor reverting the job requests claimed by a poll but never launched.
+ * <p>
+ * On PostgreSQL and H2, {@code BatchJobRequestRepository.find} marks the requests it returns as POLLED. The poll task
+ * of terasoluna then launches them one by one, calling {@code updateStatus} for each, but stops early when the daemon
+ * is shut down or the task executor rejects a request, and only reverts the rejected one. The requests returned by
+ * {@code find} without a following {@code updateStatus} are tracked here, and {@link #revertUnlaunched()}, called at
+ * the end of each poll, sets them back to INIT so that they are polled again and no longer count against
+ * max_concurrency.
+ * </p>
+ * <p>
+ * If the daemon process dies between {@code find} and the end of the poll, the claimed requests stay POLLED without a
+ * job execution id. They have to be set back to INIT by hand.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+@Intercepts({ @Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class,
+        RowBounds.class, ResultHandler.class }), @Signature(type = Executor.class, method = "update", args = {
+                MappedStatement.class, Object.class }) })
+public class JobRequestClaimTracker implements Interceptor, InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobRequestClaimTracker.class);
+
+    private static final String REPOSITORY_NAME = "org.terasoluna.batch.async.db.repository.BatchJobRequestRepository";
+
+    private static final String FIND_STATEMENT_ID = REPOSITORY_NAME + ".find";
+
+    private static final String UPDATE_STATUS_STATEMENT_ID = REPOSITORY_NAME + ".updateStatus";
+
+    private static final List<String> CLAIMING_DATABASE_IDS = Arrays.asList("postgresql", "h2");
+
+    private static final String REVERT_SQL = "UPDATE batch_job_request SET polling_status = 'INIT',"
+            + " update_date = CURRENT_TIMESTAMP WHERE job_seq_id = ? AND polling_status = 'POLLED'"
+            + " AND job_execution_id IS NULL";
+
+    private final Set<Long> unlaunched = ConcurrentHashMap.newKeySet();
+
+    private JdbcTemplate jdbcTemplate;
+
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(jdbcTemplate, "dataSource is required.");
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];
+        if (FIND_STATEMENT_ID.equals(mappedStatement.getId()) && CLAIMING_DATABASE_IDS.contains(mappedStatement
+                .getDatabaseId()) && result instanceof List) {
+            for (Object request : (List<?>) result) {
+                unlaunched.add(jobSeqId(request));
+            }
+        } else if (UPDATE_STATUS_STATEMENT_ID.equals(mappedStatement.getId())) {
+            unlaunched.remove(jobSeqId(SystemMetaObject.forObject(invocation.getArgs()[1]).getValue(
+                    "batchJobRequest")));
+        }
+        return result;
+    }
+
+    /**
+     * Sets the requests claimed by {@code find} but not launched back to INIT.
+     *
+     * @return number of reverted requests
+     */
+    public int revertUnlaunched() {
+        int reverted = 0;
+        for (Long jobSeqId : unlaunched) {
+            reverted += jdbcTemplate.update(REVERT_SQL, jobSeqId);
+            unlaunched.remove(jobSeqId);
+        }
+        if (reverted > 0) {
+            logger.info("{} job requests claimed but not launched were set back to INIT.", reverted);
+        }
+        return reverted;
+    }
+
+    private static Long jobSeqId(Object request) {
+        return ((Number) SystemMetaObject.forObject(request).getValue("jobSeqId")).longValue();
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.async;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+
+/**
+ * H2 trigger on batch_job_request waking up the {@link JobRequestWakeUpDispatcher}s of the JVM hosting the database.
+ *
+ * @since 5.5.0
+ */
+public class JobRequestInsertTrigger implements Trigger {
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) {
+        JobRequestWakeUpDispatcher.wakeUpAll();
+    }
+}
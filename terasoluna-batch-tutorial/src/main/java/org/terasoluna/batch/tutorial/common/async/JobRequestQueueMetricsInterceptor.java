@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.async;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MyBatis interceptor recording how long each job request waited before it was polled.
+ * <p>
+ * Every request returned by {@code BatchJobRequestRepository.find} is recorded into the timer
+ * {@code tutorial.job.request.queue.wait} tagged with {@code job}, as the time from its create_date to the poll. The
+ * requests are grouped per job name, which is also the unit of the concurrency limits and weights of
+ * batch_job_request_class, so the waits of short jobs can be compared with the waits of bulk ones.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+@Intercepts(@Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class,
+        RowBounds.class, ResultHandler.class }))
+public class JobRequestQueueMetricsInterceptor implements Interceptor, InitializingBean {
+
+    public static final String QUEUE_WAIT_TIMER_NAME = "tutorial.job.request.queue.wait";
+
+    private static final String FIND_STATEMENT_ID = "org.terasoluna.batch.async.db.repository."
+            + "BatchJobRequestRepository.find";
+
+    private MeterRegistry meterRegistry;
+
+    private boolean percentileHistogram;
+
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void setPercentileHistogram(boolean percentileHistogram) {
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(meterRegistry, "meterRegistry is required.");
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];
+        if (FIND_STATEMENT_ID.equals(mappedStatement.getId()) && result instanceof List) {
+            long now = System.currentTimeMillis();
+            for (Object request : (List<?>) result) {
+                record(SystemMetaObject.forObject(request), now);
+            }
+        }
+        return result;
+    }
+
+    private void record(MetaObject request, long now) {
+        Object jobName = request.getValue("jobName");
+        Object createDate = request.getValue("createDate");
+        long created;
+        if (createDate instanceof Date) {
+            created = ((Date) createDate).getTime();
+        } else if (createDate instanceof LocalDateTime) {
+            created = ((LocalDateTime) createDate).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } else {
+            return;
+        }
+        Timer.builder(QUEUE_WAIT_TIMER_NAME).tag("job", String.valueOf(jobName)).publishPercentileHistogram(
+                percentileHistogram).register(meterRegistry).record(Math.max(0L, now - created), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.async;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.util.Assert;
+import org.terasoluna.batch.async.db.JobRequestPollTask;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatcher running a poll of {@link JobRequestPollTask} as soon as a job request is inserted, instead of waiting
+ * for the next fixed-interval poll.
+ * <p>
+ * A wake-up is signalled by:
+ * </p>
+ * <ul>
+ * <li>{@link #wakeUp()}, called by code inserting job requests in the daemon process.</li>
+ * <li>On PostgreSQL, a trigger on batch_job_request calling {@code pg_notify}, received by a dedicated connection
+ * executing {@code LISTEN}. Notifications are delivered on commit, so the new request is always visible.</li>
+ * <li>On H2, a trigger on batch_job_request calling {@link JobRequestInsertTrigger}. The trigger runs in the JVM
+ * hosting the database, so requests inserted through another process only wake up a daemon that opened the database
+ * first. The trigger fires before commit, so the poll waits {@code delay} milliseconds first. Like the PostgreSQL
+ * trigger, it is shared by every daemon of the database and left in place when the dispatcher stops. It does nothing
+ * while no dispatcher is running in the JVM.</li>
+ * </ul>
+ * <p>
+ * The dispatcher starts after the context is refreshed. Wake-ups arriving while a poll is running are merged into one
+ * more poll. The fixed-interval poll keeps running as the fallback, and is the only trigger if the notifications
+ * cannot be set up.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class JobRequestWakeUpDispatcher implements InitializingBean, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobRequestWakeUpDispatcher.class);
+
+    private static final Set<JobRequestWakeUpDispatcher> DISPATCHERS = new CopyOnWriteArraySet<>();
+
+    private static final String CHANNEL = "batch_job_request";
+
+    private static final String TRIGGER_NAME = "batch_job_request_wake_up";
+
+    private static final String PG_FUNCTION_SQL = "CREATE OR REPLACE FUNCTION batch_job_request_notify()"
+            + " RETURNS trigger AS $$ BEGIN PERFORM pg_notify('" + CHANNEL + "', ''); RETURN NULL; END; $$"
+            + " LANGUAGE plpgsql";
+
+    private static final String PG_TRIGGER_SQL = "CREATE TRIGGER " + TRIGGER_NAME
+            + " AFTER INSERT ON batch_job_request FOR EACH STATEMENT EXECUTE FUNCTION batch_job_request_notify()";
+
+    private static final String PG_DROP_TRIGGER_SQL = "DROP TRIGGER IF EXISTS " + TRIGGER_NAME
+            + " ON batch_job_request";
+
+    private static final String H2_TRIGGER_SQL = "CREATE TRIGGER IF NOT EXISTS " + TRIGGER_NAME
+            + " AFTER INSERT ON batch_job_request FOR EACH STATEMENT CALL '" + JobRequestInsertTrigger.class.getName()
+            + "'";
+    private JobRequestPollTask jobRequestPollTask;
+
+    private DataSource dataSource;
+
+    private boolean enabled = true;
+
+    private long delay = 10;
+
+    private long listenTimeout = 1000;
+
+    private final Semaphore signal = new Semaphore(0);
+
+    private volatile boolean running;
+
+    private Thread dispatcherThread;
+
+    private Thread listenerThread;
+
+    public void setJobRequestPollTask(JobRequestPollTask jobRequestPollTask) {
+        this.jobRequestPollTask = jobRequestPollTask;
+    }
+
+    public void setDataSource(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setDelay(long delay) {
+        this.delay = delay;
+    }
+
+    public void setListenTimeout(long listenTimeout) {
+        this.listenTimeout = listenTimeout;
+    }
+
+    /**
+     * Requests a poll to run as soon as possible.
+     */
+    public void wakeUp() {
+        if (running && signal.availablePermits() == 0) {
+            signal.release();
+        }
+    }
+
+    static void wakeUpAll() {
+        for (JobRequestWakeUpDispatcher dispatcher : DISPATCHERS) {
+            dispatcher.wakeUp();
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(jobRequestPollTask, "jobRequestPollTask is required.");
+        Assert.notNull(dataSource, "dataSource is required.");
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        dispatcherThread = new Thread(this::dispatch, "jobRequestWakeUpDispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+
+        try {
+            String databaseProductName;
+            try (Connection con = dataSource.getConnection()) {
+                databaseProductName = con.getMetaData().getDatabaseProductName();
+            }
+            if ("PostgreSQL".equals(databaseProductName)) {
+                executeInNewTransaction(PG_FUNCTION_SQL, PG_DROP_TRIGGER_SQL, PG_TRIGGER_SQL);
+                listenerThread = new Thread(this::listen, "jobRequestNotificationListener");
+                listenerThread.setDaemon(true);
+                listenerThread.start();
+            } else if ("H2".equals(databaseProductName)) {
+                DISPATCHERS.add(this);
+                executeInNewTransaction(H2_TRIGGER_SQL);
+            } else {
+                logger.info("No job request notification is available for {}. Only wakeUp() triggers a poll.",
+                        databaseProductName);
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to set up job request notifications. Only wakeUp() triggers a poll.", e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        DISPATCHERS.remove(this);
+        dispatcherThread.interrupt();
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            listenerThread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void dispatch() {
+        while (running) {
+            try {
+                signal.acquire();
+                if (delay > 0) {
+                    TimeUnit.MILLISECONDS.sleep(delay);
+                }
+                signal.drainPermits();
+                jobRequestPollTask.poll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Poll on wake-up failed.", e);
+            }
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection con = dataSource.getConnection()) {
+                con.setAutoCommit(true);
+                try (Statement statement = con.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = con.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) listenTimeout);
+                    if (notifications != null && notifications.length > 0) {
+                        wakeUp();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Listening to {} failed. Retrying in {} ms.", CHANNEL, listenTimeout, e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(listenTimeout);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void executeInNewTransaction(String... sqls) throws SQLException {
+        try (Connection con = dataSource.getConnection()) {
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try (Statement statement = con.createStatement()) {
+                for (String sql : sqls) {
+                    statement.execute(sql);
+                }
+                con.commit();
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.async;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.support.ApplicationContextFactory;
+import org.springframework.batch.core.scope.context.JobSynchronizationManager;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory decorating the {@link ApplicationContextFactory} instances of the job contexts loaded by the asynchronous
+ * batch daemon.
+ * <p>
+ * {@code AutomaticJobRegistrar} creates every job context once when the daemon starts, and every launch reuses it. The
+ * decorated factories also warm a job context up right after its creation: every step-scoped and job-scoped bean is
+ * created once in a synthetic step execution and destroyed with it, so that the class loading, bean definition
+ * merging and expression parsing of these beans are not paid by the first launch. Beans which cannot be created
+ * without real job parameters are skipped. Every execution still creates its own step-scoped and job-scoped beans.
+ * </p>
+ * <p>
+ * The time to create and warm a context up is recorded into the timer {@code tutorial.job.context.startup} tagged
+ * with the names of its jobs.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class WarmJobContextFactoryBean implements FactoryBean<ApplicationContextFactory[]>, InitializingBean {
+
+    public static final String STARTUP_TIMER_NAME = "tutorial.job.context.startup";
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmJobContextFactoryBean.class);
+
+    private static final String WARM_UP_STEP_NAME = "warmUp";
+
+    private static final String STEP_SCOPE = "step";
+
+    private static final String JOB_SCOPE = "job";
+
+    private ApplicationContextFactory[] applicationContextFactories;
+
+    private MeterRegistry meterRegistry;
+
+    private boolean warmUp = true;
+
+    private ApplicationContextFactory[] warmApplicationContextFactories;
+
+    public void setApplicationContextFactories(ApplicationContextFactory[] applicationContextFactories) {
+        this.applicationContextFactories = applicationContextFactories;
+    }
+
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(applicationContextFactories, "applicationContextFactories is required.");
+        Assert.notNull(meterRegistry, "meterRegistry is required.");
+        warmApplicationContextFactories = Arrays.stream(applicationContextFactories).map(
+                WarmApplicationContextFactory::new).toArray(ApplicationContextFactory[]::new);
+    }
+
+    @Override
+    public ApplicationContextFactory[] getObject() {
+        return warmApplicationContextFactories;
+    }
+
+    @Override
+    public Class<?> getObjectType() {
+        return ApplicationContextFactory[].class;
+    }
+
+    private void warmUp(ConfigurableApplicationContext context, String jobNames) {
+        JobExecution jobExecution = new JobExecution(new JobInstance(0L, jobNames), 0L, new JobParameters());
+        JobSynchronizationManager.register(jobExecution);
+        StepSynchronizationManager.register(new StepExecution(WARM_UP_STEP_NAME, jobExecution, 0L));
+        try {
+            ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                String scope = beanFactory.getMergedBeanDefinition(beanName).getScope();
+                if (!STEP_SCOPE.equals(scope) && !JOB_SCOPE.equals(scope)) {
+                    continue;
+                }
+                try {
+                    beanFactory.getBean(beanName);
+                } catch (BeansException e) {
+                    logger.debug("Skipped the warm-up of {} in the context of {}.", beanName, jobNames, e);
+                }
+            }
+        } finally {
+            StepSynchronizationManager.close();
+            JobSynchronizationManager.close();
+        }
+    }
+
+    private class WarmApplicationContextFactory implements ApplicationContextFactory {
+
+        private final ApplicationContextFactory delegate;
+
+        WarmApplicationContextFactory(ApplicationContextFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ConfigurableApplicationContext createApplicationContext() {
+            long start = System.nanoTime();
+            ConfigurableApplicationContext context = delegate.createApplicationContext();
+            String jobNames = StringUtils.arrayToCommaDelimitedString(context.getBeanNamesForType(Job.class, false,
+                    false));
+            if (warmUp) {
+                warmUp(context, jobNames);
+            }
+            long elapsed = System.nanoTime() - start;
+            Timer.builder(STARTUP_TIMER_NAME).tag("job", jobNames).register(meterRegistry).record(elapsed,
+                    TimeUnit.NANOSECONDS);
+            logger.info("Prepared the context of {} in {} ms.", jobNames, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return context;
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
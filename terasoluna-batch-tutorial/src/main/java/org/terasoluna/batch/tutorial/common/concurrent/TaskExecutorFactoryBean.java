@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.concurrent;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Factory of the {@link ThreadPoolTaskExecutor} launching jobs in the asynchronous batch daemon and running partition
+ * workers.
+ * <p>
+ * {@code type} selects the threads running the tasks:
+ * </p>
+ * <ul>
+ * <li>{@code platform} : a pool of {@code concurrencyLimit} platform threads.</li>
+ * <li>{@code virtual} : a new virtual thread per task, at most {@code concurrencyLimit} of which run at a time. It
+ * requires Java 21 and the classes of the {@code java21} profile.</li>
+ * </ul>
+ * <p>
+ * Both accept up to {@code queueCapacity} tasks waiting for a free slot and reject the next ones, so the daemon
+ * started with a capacity of 0 polls only as many requests as it can launch. The executor is initialized and shut down
+ * by this factory. Its thread names start with {@code threadNamePrefix}, or with the bean name by default.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class TaskExecutorFactoryBean implements FactoryBean<ThreadPoolTaskExecutor>, BeanNameAware,
+                                     InitializingBean, DisposableBean {
+
+    public static final String VIRTUAL_THREAD_TASK_EXECUTOR_CLASS_NAME = "org.terasoluna.batch.tutorial.common."
+            + "concurrent.VirtualThreadTaskExecutor";
+
+    private String type = "platform";
+
+    private int concurrencyLimit = 1;
+
+    private int queueCapacity = Integer.MAX_VALUE;
+
+    private String threadNamePrefix;
+
+    private String beanName;
+
+    private ThreadPoolTaskExecutor taskExecutor;
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public void setConcurrencyLimit(int concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void setThreadNamePrefix(String threadNamePrefix) {
+        this.threadNamePrefix = threadNamePrefix;
+    }
+
+    @Override
+    public void setBeanName(String beanName) {
+        this.beanName = beanName;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.isTrue(concurrencyLimit > 0, "concurrencyLimit must be greater than 0.");
+        Assert.isTrue(queueCapacity >= 0, "queueCapacity must not be negative.");
+
+        switch (type.trim()) {
+        case "platform":
+            taskExecutor = new ThreadPoolTaskExecutor();
+            break;
+        case "virtual":
+            taskExecutor = createVirtualThreadTaskExecutor();
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown task executor type. [" + type + "]");
+        }
+        taskExecutor.setCorePoolSize(concurrencyLimit);
+        taskExecutor.setMaxPoolSize(concurrencyLimit);
+        taskExecutor.setQueueCapacity(queueCapacity);
+        if (threadNamePrefix != null) {
+            taskExecutor.setThreadNamePrefix(threadNamePrefix);
+        }
+        if (beanName != null) {
+            taskExecutor.setBeanName(beanName);
+        }
+        taskExecutor.initialize();
+    }
+
+    private ThreadPoolTaskExecutor createVirtualThreadTaskExecutor() {
+        ClassLoader classLoader = TaskExecutorFactoryBean.class.getClassLoader();
+        if (!ClassUtils.isPresent(VIRTUAL_THREAD_TASK_EXECUTOR_CLASS_NAME, classLoader)) {
+            throw new IllegalStateException("The virtual task executor requires Java 21 and the java21 profile.");
+        }
+        return (ThreadPoolTaskExecutor) BeanUtils.instantiateClass(ClassUtils.resolveClassName(
+                VIRTUAL_THREAD_TASK_EXECUTOR_CLASS_NAME, classLoader));
+    }
+
+    @Override
+    public ThreadPoolTaskExecutor getObject() {
+        return taskExecutor;
+    }
+
+    @Override
+    public Class<?> getObjectType() {
+        return ThreadPoolTaskExecutor.class;
+    }
+
+    @Override
+    public void destroy() {
+        if (taskExecutor != null) {
+            taskExecutor.shutdown();
+        }
+    }
+}
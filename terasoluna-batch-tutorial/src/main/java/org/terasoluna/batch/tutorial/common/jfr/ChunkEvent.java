@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of a chunk, from the start of its transaction to the end of its commit or rollback.
+ * <p>
+ * The counts are the increments of the step execution made by the chunk.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+@Name("org.terasoluna.batch.tutorial.Chunk")
+@Label("Chunk")
+@Category({ "TERASOLUNA Batch", "Step" })
+@Description("A chunk of a step")
+public class ChunkEvent extends Event {
+
+    @Label("Job Name")
+    String jobName;
+
+    @Label("Step Name")
+    String stepName;
+
+    @Label("Step Execution Id")
+    long stepExecutionId;
+
+    @Label("Read Count")
+    long readCount;
+
+    @Label("Write Count")
+    long writeCount;
+
+    @Label("Filter Count")
+    long filterCount;
+
+    @Label("Skip Count")
+    long skipCount;
+
+    @Label("Rolled Back")
+    boolean rolledBack;
+}
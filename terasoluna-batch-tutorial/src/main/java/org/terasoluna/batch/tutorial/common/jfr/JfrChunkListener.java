@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.jfr;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.Chunk;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Listener emitting {@link ChunkEvent}, {@link CommitEvent} and {@link WriterFlushEvent}.
+ * <p>
+ * Each callback first creates its event and returns at once if the event type is not enabled in a running recording.
+ * The JIT removes such an event without allocating it, so the listener costs one thread-local lookup per chunk while
+ * no recording is running.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class JfrChunkListener implements ChunkListener, ItemWriteListener<Object> {
+
+    private final ThreadLocal<ChunkRecording> currentChunk = new ThreadLocal<>();
+
+    private final ThreadLocal<WriterFlushEvent> currentFlush = new ThreadLocal<>();
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        ChunkEvent chunkEvent = new ChunkEvent();
+        CommitEvent commitEvent = new CommitEvent();
+        if (!chunkEvent.isEnabled() && !commitEvent.isEnabled()) {
+            return;
+        }
+
+        ChunkRecording recording = new ChunkRecording(context.getStepContext().getStepExecution(), chunkEvent,
+                commitEvent);
+        currentChunk.set(recording);
+        chunkEvent.begin();
+        if (commitEvent.isEnabled() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(recording);
+        }
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        endChunk(false);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        endChunk(true);
+    }
+
+    @Override
+    public void beforeWrite(Chunk<?> items) {
+        WriterFlushEvent event = new WriterFlushEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        currentFlush.set(event);
+        event.begin();
+    }
+
+    @Override
+    public void afterWrite(Chunk<?> items) {
+        endWrite(items, false);
+    }
+
+    @Override
+    public void onWriteError(Exception exception, Chunk<?> items) {
+        endWrite(items, true);
+    }
+
+    private void endChunk(boolean rolledBack) {
+        ChunkRecording recording = currentChunk.get();
+        if (recording == null) {
+            return;
+        }
+        currentChunk.remove();
+
+        ChunkEvent event = recording.chunkEvent;
+        event.end();
+        if (event.shouldCommit()) {
+            StepExecution stepExecution = recording.stepExecution;
+            event.jobName = recording.jobName;
+            event.stepName = stepExecution.getStepName();
+            event.stepExecutionId = stepExecution.getId() != null ? stepExecution.getId() : 0L;
+            event.readCount = stepExecution.getReadCount() - recording.readCount;
+            event.writeCount = stepExecution.getWriteCount() - recording.writeCount;
+            event.filterCount = stepExecution.getFilterCount() - recording.filterCount;
+            event.skipCount = stepExecution.getSkipCount() - recording.skipCount;
+            event.rolledBack = rolledBack;
+            event.commit();
+        }
+    }
+
+    private void endWrite(Chunk<?> items, boolean failed) {
+        WriterFlushEvent event = currentFlush.get();
+        if (event == null) {
+            return;
+        }
+        currentFlush.remove();
+
+        event.end();
+        if (event.shouldCommit()) {
+            StepContext stepContext = StepSynchronizationManager.getContext();
+            if (stepContext != null) {
+                event.jobName = stepContext.getJobName();
+                event.stepName = stepContext.getStepName();
+            }
+            event.itemCount = items.size();
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Chunk being recorded on the current thread, with the counts of its step at the start of the chunk.
+     */
+    private static final class ChunkRecording implements TransactionSynchronization {
+
+        private final StepExecution stepExecution;
+
+        private final String jobName;
+
+        private final ChunkEvent chunkEvent;
+
+        private final CommitEvent commitEvent;
+
+        private final long readCount;
+
+        private final long writeCount;
+
+        private final long filterCount;
+
+        private final long skipCount;
+
+        ChunkRecording(StepExecution stepExecution, ChunkEvent chunkEvent, CommitEvent commitEvent) {
+            this.stepExecution = stepExecution;
+            this.jobName = stepExecution.getJobExecution().getJobInstance().getJobName();
+            this.chunkEvent = chunkEvent;
+            this.commitEvent = commitEvent;
+            this.readCount = stepExecution.getReadCount();
+            this.writeCount = stepExecution.getWriteCount();
+            this.filterCount = stepExecution.getFilterCount();
+            this.skipCount = stepExecution.getSkipCount();
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            commitEvent.begin();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            commitEvent.end();
+            if (commitEvent.shouldCommit()) {
+                commitEvent.jobName = jobName;
+                commitEvent.stepName = stepExecution.getStepName();
+                commitEvent.committed = status == STATUS_COMMITTED;
+                commitEvent.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.jfr;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Listener emitting {@link JobExecutionEvent}.
+ * <p>
+ * Nothing is kept for a job execution unless the event type is enabled in a running recording when the job starts.
+ * The events are kept by job execution id, so that the listener can be shared by jobs running concurrently in the
+ * asynchronous batch daemon.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class JfrJobExecutionListener implements JobExecutionListener {
+
+    private final Map<Long, JobExecutionEvent> events = new ConcurrentHashMap<>();
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        JobExecutionEvent event = new JobExecutionEvent();
+        if (!event.isEnabled() || jobExecution.getId() == null) {
+            return;
+        }
+        events.put(jobExecution.getId(), event);
+        event.begin();
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        if (jobExecution.getId() == null) {
+            return;
+        }
+        JobExecutionEvent event = events.remove(jobExecution.getId());
+        if (event == null) {
+            return;
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.jobName = jobExecution.getJobInstance().getJobName();
+            event.jobExecutionId = jobExecution.getId();
+            event.status = jobExecution.getStatus().toString();
+            event.exitCode = jobExecution.getExitStatus().getExitCode();
+            event.commit();
+        }
+    }
+}
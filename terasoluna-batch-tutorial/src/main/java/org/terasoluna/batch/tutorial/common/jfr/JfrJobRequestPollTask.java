@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.jfr;
+
+import org.springframework.batch.core.configuration.support.AutomaticJobRegistrar;
+import org.springframework.batch.core.launch.JobOperator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.terasoluna.batch.async.db.JobRequestPollTask;
+import org.terasoluna.batch.async.db.repository.BatchJobRequestRepository;
+import org.terasoluna.batch.tutorial.common.async.JobRequestClaimTracker;
+
+/**
+ * {@link JobRequestPollTask} emitting {@link PollCycleEvent} for each poll cycle.
+ * <p>
+ * Polls are serialized, because they are also run by {@code JobRequestWakeUpDispatcher} besides the scheduler. When a
+ * {@link JobRequestClaimTracker} is set, each poll ends by setting the requests it claimed but did not launch back to
+ * INIT.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class JfrJobRequestPollTask extends JobRequestPollTask {
+
+    private final ThreadPoolTaskExecutor daemonTaskExecutor;
+
+    private JobRequestClaimTracker claimTracker;
+
+    public JfrJobRequestPollTask(BatchJobRequestRepository batchJobRequestMapper,
+            PlatformTransactionManager transactionManager, ThreadPoolTaskExecutor daemonTaskExecutor,
+            JobOperator jobOperator, AutomaticJobRegistrar automaticJobRegistrar) {
+        super(batchJobRequestMapper, transactionManager, daemonTaskExecutor, jobOperator, automaticJobRegistrar);
+        this.daemonTaskExecutor = daemonTaskExecutor;
+    }
+
+    public void setClaimTracker(JobRequestClaimTracker claimTracker) {
+        this.claimTracker = claimTracker;
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${async-batch-daemon.polling-initial-delay:1000}",
+            fixedDelayString = "${async-batch-daemon.polling-interval:5000}")
+    public synchronized void poll() {
+        try {
+            pollWithEvent();
+        } finally {
+            if (claimTracker != null) {
+                claimTracker.revertUnlaunched();
+            }
+        }
+    }
+
+    private void pollWithEvent() {
+        PollCycleEvent event = new PollCycleEvent();
+        if (!event.isEnabled()) {
+            super.poll();
+            return;
+        }
+
+        int activeCountBefore = daemonTaskExecutor.getActiveCount();
+        event.begin();
+        try {
+            super.poll();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.activeCountBefore = activeCountBefore;
+                event.activeCountAfter = daemonTaskExecutor.getActiveCount();
+                event.poolSize = daemonTaskExecutor.getPoolSize();
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of a poll cycle of the asynchronous batch daemon.
+ * <p>
+ * An increase of the active count means that the cycle launched jobs.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+@Name("org.terasoluna.batch.tutorial.PollCycle")
+@Label("Job Request Poll")
+@Category({ "TERASOLUNA Batch", "Async Batch Daemon" })
+@Description("A poll cycle of the job request table")
+public class PollCycleEvent extends Event {
+
+    @Label("Active Count Before")
+    int activeCountBefore;
+
+    @Label("Active Count After")
+    int activeCountAfter;
+
+    @Label("Pool Size")
+    int poolSize;
+}
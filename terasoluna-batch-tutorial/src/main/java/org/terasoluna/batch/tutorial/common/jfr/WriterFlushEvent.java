@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of the write of the items of a chunk by the {@code ItemWriter}.
+ *
+ * @since 5.5.0
+ */
+@Name("org.terasoluna.batch.tutorial.WriterFlush")
+@Label("Writer Flush")
+@Category({ "TERASOLUNA Batch", "Step" })
+@Description("The write of the items of a chunk")
+public class WriterFlushEvent extends Event {
+
+    @Label("Job Name")
+    String jobName;
+
+    @Label("Step Name")
+    String stepName;
+
+    @Label("Item Count")
+    int itemCount;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.listener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Component;
+
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reporter of per-item errors that logs the first occurrences in full and only counts the rest.
+ * <p>
+ * The first {@code detailLimit} occurrences of each message code in a step are resolved and logged with the logger of
+ * the caller. The later ones are only counted, and the number suppressed in each chunk and the total of the step are
+ * logged as summaries after each chunk and at the end of the step. The counts are kept in the step execution context
+ * under {@code errorReport.<code>.count}, so they are saved with each chunk and continue on restart.
+ * </p>
+ * <p>
+ * Register this listener on the step to get the summaries. A tasklet handling several chunks in one call can call
+ * {@link #summarizeChunk()} after each of them.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+@Component
+public class AggregatingErrorReporter implements StepExecutionListener, ChunkListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AggregatingErrorReporter.class);
+
+    private static final String KEY_PREFIX = "errorReport.";
+
+    private static final String COUNT_KEY_SUFFIX = ".count";
+
+    private static final String SUMMARIZED_KEY_SUFFIX = ".summarized";
+
+    @Inject
+    MessageSource messageSource;
+
+    @Value("${tutorial.error-report.detail-limit:10}")
+    long detailLimit;
+
+    /**
+     * Reports an occurrence of an error.
+     *
+     * @param callerLogger logger of the caller, used for the detailed message
+     * @param code message code
+     * @param args message arguments
+     */
+    public void report(Logger callerLogger, String code, Object[] args) {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        if (stepContext == null) {
+            callerLogger.warn(messageSource.getMessage(code, args, Locale.getDefault()));
+            return;
+        }
+
+        ExecutionContext executionContext = stepContext.getStepExecution().getExecutionContext();
+        String countKey = KEY_PREFIX + code + COUNT_KEY_SUFFIX;
+        long count = executionContext.getLong(countKey, 0L) + 1;
+        executionContext.putLong(countKey, count);
+        if (count <= detailLimit) {
+            callerLogger.warn(messageSource.getMessage(code, args, Locale.getDefault()));
+        }
+    }
+
+    /**
+     * Logs the number of occurrences suppressed since the last summary of the current step.
+     */
+    public void summarizeChunk() {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        if (stepContext != null) {
+            summarizeChunk(stepContext.getStepExecution().getExecutionContext());
+        }
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        // do nothing.
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        summarizeChunk(context.getStepContext().getStepExecution().getExecutionContext());
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+        summarizeChunk(executionContext);
+        for (String code : codes(executionContext)) {
+            long count = executionContext.getLong(KEY_PREFIX + code + COUNT_KEY_SUFFIX);
+            logger.warn("[{}] occurred {} times in step {}. {} of them were logged in detail.", code, count,
+                    stepExecution.getStepName(), Math.min(count, detailLimit));
+        }
+        return null;
+    }
+
+    private void summarizeChunk(ExecutionContext executionContext) {
+        for (String code : codes(executionContext)) {
+            long count = executionContext.getLong(KEY_PREFIX + code + COUNT_KEY_SUFFIX);
+            String summarizedKey = KEY_PREFIX + code + SUMMARIZED_KEY_SUFFIX;
+            long summarized = Math.max(detailLimit, executionContext.getLong(summarizedKey, 0L));
+            if (count > summarized) {
+                logger.warn("[{}] occurred {} more times without detail. ({} in total)", code, count - summarized,
+                        count);
+                executionContext.putLong(summarizedKey, count);
+            }
+        }
+    }
+
+    private static List<String> codes(ExecutionContext executionContext) {
+        List<String> codes = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : executionContext.entrySet()) {
+            String key = entry.getKey();
+            if (key.startsWith(KEY_PREFIX) && key.endsWith(COUNT_KEY_SUFFIX)) {
+                codes.add(key.substring(KEY_PREFIX.length(), key.length() - COUNT_KEY_SUFFIX.length()));
+            }
+        }
+        return codes;
+    }
+}
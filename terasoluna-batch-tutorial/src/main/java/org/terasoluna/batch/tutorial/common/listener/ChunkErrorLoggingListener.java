@@ -30,6 +30,8 @@ import java.util.Locale;
 public class ChunkErrorLoggingListener implements ChunkListener {
     private static final Logger logger = LoggerFactory.getLogger(ChunkErrorLoggingListener.class);
 
+    private static final Object[] MAX_POINT_MESSAGE_ARGS = { "point", "1000000" };
+
     @Inject
     MessageSource messageSource;
 
@@ -47,8 +49,7 @@ public class ChunkErrorLoggingListener implements ChunkListener {
     public void afterChunkError(ChunkContext chunkContext) {
         Exception e = (Exception) chunkContext.getAttribute(ChunkListener.ROLLBACK_EXCEPTION_KEY);
         if (e instanceof ValidationException) {
-            logger.error(messageSource.getMessage("errors.maxInteger", new String[] { "point", "1000000" }, Locale
-                    .getDefault()));
+            logger.error(messageSource.getMessage("errors.maxInteger", MAX_POINT_MESSAGE_ARGS, Locale.getDefault()));
         }
     }
 }
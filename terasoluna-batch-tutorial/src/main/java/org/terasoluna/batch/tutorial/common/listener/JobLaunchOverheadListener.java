@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.listener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Listener recording the overhead of each job launch into a Micrometer registry.
+ * <p>
+ * The timer {@code tutorial.job.launch.overhead} records the time from the creation of the job execution to the start
+ * of the job, which covers the handover to the launch thread and the preparation of the job context. It is tagged with
+ * {@code job} and with {@code launch}, which is {@code first} for the first launch of the job in this JVM and
+ * {@code repeat} for the next ones, so the cost of a cold job context shows apart from back-to-back launches.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class JobLaunchOverheadListener implements JobExecutionListener, InitializingBean {
+
+    public static final String LAUNCH_OVERHEAD_TIMER_NAME = "tutorial.job.launch.overhead";
+
+    private final Set<String> launchedJobNames = ConcurrentHashMap.newKeySet();
+
+    private MeterRegistry meterRegistry;
+
+    private boolean percentileHistogram;
+
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void setPercentileHistogram(boolean percentileHistogram) {
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(meterRegistry, "meterRegistry is required.");
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        LocalDateTime createTime = jobExecution.getCreateTime();
+        if (createTime == null) {
+            return;
+        }
+        String jobName = jobExecution.getJobInstance().getJobName();
+        String launch = launchedJobNames.add(jobName) ? "first" : "repeat";
+        Timer.builder(LAUNCH_OVERHEAD_TIMER_NAME).tag("job", jobName).tag("launch", launch).publishPercentileHistogram(
+                percentileHistogram).register(meterRegistry).record(Duration.between(createTime, LocalDateTime.now()));
+    }
+}
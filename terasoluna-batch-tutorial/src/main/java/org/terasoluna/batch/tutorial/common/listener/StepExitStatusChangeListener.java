@@ -23,6 +23,18 @@ import org.springframework.stereotype.Component;
 @Component
 public class StepExitStatusChangeListener implements StepExecutionListener {
 
+    private boolean filteredItemsSkipped = true;
+
+    /**
+     * Sets whether the items filtered by the processor are skipped items. If not, they are counted as processed, as
+     * in the changed-only mode where the processor filters the items it leaves unchanged.
+     *
+     * @param filteredItemsSkipped whether filtered items make the step SKIPPED. (default: true)
+     */
+    public void setFilteredItemsSkipped(boolean filteredItemsSkipped) {
+        this.filteredItemsSkipped = filteredItemsSkipped;
+    }
+
     @Override
     public void beforeStep(StepExecution stepExecution) {
         // do nothing.
@@ -38,6 +50,10 @@ public class StepExitStatusChangeListener implements StepExecutionListener {
     }
 
     private boolean conditionalCheck(StepExecution stepExecution) {
-        return (stepExecution.getWriteCount() != stepExecution.getReadCount());
+        long processedCount = stepExecution.getWriteCount();
+        if (!filteredItemsSkipped) {
+            processedCount += stepExecution.getFilterCount();
+        }
+        return (processedCount != stepExecution.getReadCount());
     }
 }
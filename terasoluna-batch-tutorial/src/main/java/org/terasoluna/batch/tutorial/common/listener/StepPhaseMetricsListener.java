@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.listener;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener recording the time of each phase of a step into a Micrometer registry.
+ * <p>
+ * The timer {@code tutorial.step.phase} is tagged with {@code job}, {@code step} and {@code phase}, where the phase is
+ * one of {@code read-process} from {@code beforeChunk} to {@code beforeWrite}, {@code write}, {@code commit} per chunk
+ * transaction, and {@code chunk} from {@code beforeChunk} to {@code afterChunk}. The number of items per write is
+ * recorded in the distribution summary {@code tutorial.step.chunk.items}. Tasklet steps only record {@code chunk} and
+ * {@code commit}.
+ * </p>
+ * <p>
+ * Every phase is timed once per chunk, never per item: per-item read and process timers cost about half of the
+ * throughput of an in-memory chunk in {@code StepPhaseMetricsListenerBenchmark}. The meters of a step are resolved once
+ * in {@code beforeStep} and bound to the step thread, so a callback costs one thread-local lookup, one
+ * {@link System#nanoTime()} call and at most two timer updates. Partition workers share the meters of their step name.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class StepPhaseMetricsListener implements StepExecutionListener, ChunkListener, ItemWriteListener<Object>,
+                                      InitializingBean {
+
+    public static final String PHASE_TIMER_NAME = "tutorial.step.phase";
+
+    public static final String CHUNK_ITEMS_NAME = "tutorial.step.chunk.items";
+
+    private final ThreadLocal<PhaseMeters> currentMeters = new ThreadLocal<>();
+
+    private MeterRegistry meterRegistry;
+
+    private boolean percentileHistogram;
+
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void setPercentileHistogram(boolean percentileHistogram) {
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(meterRegistry, "meterRegistry is required.");
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        currentMeters.set(new PhaseMeters(stepExecution, currentMeters.get()));
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        PhaseMeters meters = currentMeters.get();
+        if (meters != null && meters.previous != null) {
+            currentMeters.set(meters.previous);
+        } else {
+            currentMeters.remove();
+        }
+        return null;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        PhaseMeters meters = currentMeters.get();
+        if (meters != null) {
+            meters.chunkStart = System.nanoTime();
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(meters);
+            }
+        }
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        PhaseMeters meters = currentMeters.get();
+        if (meters != null) {
+            meters.chunk.record(System.nanoTime() - meters.chunkStart, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        afterChunk(context);
+    }
+
+    @Override
+    public void beforeWrite(Chunk<?> items) {
+        PhaseMeters meters = currentMeters.get();
+        if (meters != null) {
+            meters.writeStart = System.nanoTime();
+            meters.readProcess.record(meters.writeStart - meters.chunkStart, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void afterWrite(Chunk<?> items) {
+        PhaseMeters meters = currentMeters.get();
+        if (meters != null) {
+            meters.write.record(System.nanoTime() - meters.writeStart, TimeUnit.NANOSECONDS);
+            meters.chunkItems.record(items.size());
+        }
+    }
+
+    @Override
+    public void onWriteError(Exception exception, Chunk<?> items) {
+        PhaseMeters meters = currentMeters.get();
+        if (meters != null) {
+            meters.write.record(System.nanoTime() - meters.writeStart, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Meters and start times of the step running on the current thread.
+     */
+    private final class PhaseMeters implements TransactionSynchronization {
+
+        private final PhaseMeters previous;
+
+        private final Timer readProcess;
+
+        private final Timer write;
+
+        private final Timer commit;
+
+        private final Timer chunk;
+
+        private final DistributionSummary chunkItems;
+
+        private long writeStart;
+
+        private long commitStart;
+
+        private long chunkStart;
+
+        PhaseMeters(StepExecution stepExecution, PhaseMeters previous) {
+            this.previous = previous;
+            String jobName = stepExecution.getJobExecution().getJobInstance().getJobName();
+            // Partition workers are named "<step>:<partition>", which would create meters per partition.
+            String stepName = stepExecution.getStepName();
+            int separator = stepName.indexOf(':');
+            if (separator > 0) {
+                stepName = stepName.substring(0, separator);
+            }
+            this.readProcess = timer(jobName, stepName, "read-process");
+            this.write = timer(jobName, stepName, "write");
+            this.commit = timer(jobName, stepName, "commit");
+            this.chunk = timer(jobName, stepName, "chunk");
+            this.chunkItems = DistributionSummary.builder(CHUNK_ITEMS_NAME).tag("job", jobName).tag("step",
+                    stepName).publishPercentileHistogram(percentileHistogram).register(meterRegistry);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            commitStart = System.nanoTime();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED && commitStart != 0L) {
+                commit.record(System.nanoTime() - commitStart, TimeUnit.NANOSECONDS);
+            }
+            commitStart = 0L;
+        }
+
+        private Timer timer(String jobName, String stepName, String phase) {
+            return Timer.builder(PHASE_TIMER_NAME).tag("job", jobName).tag("step", stepName).tag("phase", phase)
+                    .publishPercentileHistogram(percentileHistogram).register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.mapping;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Factory of direct constructor, getter and setter calls generated with {@link LambdaMetafactory}.
+ * <p>
+ * The generated functions call the methods like hand-written code, so no reflection or {@code BeanWrapper} is involved
+ * once they are created. {@code int} and {@code long} setters are exposed as {@link ObjIntConsumer} and
+ * {@link ObjLongConsumer}, and integral getters as {@link ToLongFunction}, to avoid boxing.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public final class LambdaAccessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private LambdaAccessors() {
+    }
+
+    public static <T> Supplier<T> constructor(Class<T> type) {
+        try {
+            MethodHandle handle = LOOKUP.findConstructor(type, MethodType.methodType(void.class));
+            return generate(Supplier.class, "get", MethodType.methodType(Object.class), handle, MethodType.methodType(
+                    type));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("No public default constructor found: " + type.getName(), e);
+        }
+    }
+
+    public static <T> Function<T, Object> getter(Class<T> type, String name) {
+        Method method = property(type, name).getReadMethod();
+        if (method == null) {
+            throw new IllegalArgumentException("No getter found for property '" + name + "' of " + type.getName());
+        }
+        return generate(Function.class, "apply", MethodType.methodType(Object.class, Object.class), unreflect(method),
+                MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(method.getReturnType()), type));
+    }
+
+    public static <T> ToLongFunction<T> longGetter(Class<T> type, String name) {
+        Method method = property(type, name).getReadMethod();
+        if (method == null) {
+            throw new IllegalArgumentException("No getter found for property '" + name + "' of " + type.getName());
+        }
+        return generate(ToLongFunction.class, "applyAsLong", MethodType.methodType(long.class, Object.class),
+                unreflect(method), MethodType.methodType(long.class, type));
+    }
+
+    public static Class<?> propertyType(Class<?> type, String name) {
+        return property(type, name).getPropertyType();
+    }
+
+    public static <T> BiConsumer<T, Object> setter(Class<T> type, String name) {
+        Method method = writeMethod(type, name);
+        return generate(BiConsumer.class, "accept", MethodType.methodType(void.class, Object.class, Object.class),
+                unreflect(method), MethodType.methodType(void.class, type, ClassUtils.resolvePrimitiveIfNecessary(
+                        method.getParameterTypes()[0])));
+    }
+
+    public static <T> ObjIntConsumer<T> intSetter(Class<T> type, String name) {
+        return generate(ObjIntConsumer.class, "accept", MethodType.methodType(void.class, Object.class, int.class),
+                unreflect(writeMethod(type, name)), MethodType.methodType(void.class, type, int.class));
+    }
+
+    public static <T> ObjLongConsumer<T> longSetter(Class<T> type, String name) {
+        return generate(ObjLongConsumer.class, "accept", MethodType.methodType(void.class, Object.class, long.class),
+                unreflect(writeMethod(type, name)), MethodType.methodType(void.class, type, long.class));
+    }
+
+    private static PropertyDescriptor property(Class<?> type, String name) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, name);
+        if (descriptor == null) {
+            throw new IllegalArgumentException("No property '" + name + "' found in " + type.getName());
+        }
+        return descriptor;
+    }
+
+    private static Method writeMethod(Class<?> type, String name) {
+        Method method = property(type, name).getWriteMethod();
+        if (method == null) {
+            throw new IllegalArgumentException("No setter found for property '" + name + "' of " + type.getName());
+        }
+        return method;
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            return LOOKUP.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Method is not accessible: " + method, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <F> F generate(Class<?> functionType, String functionMethod, MethodType functionMethodType,
+            MethodHandle implementation, MethodType instantiatedMethodType) {
+        try {
+            return (F) LambdaMetafactory.metafactory(LOOKUP, functionMethod, MethodType.methodType(functionType),
+                    functionMethodType, implementation, instantiatedMethodType).getTarget().invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to generate accessor for " + implementation, e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.mapping;
+
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import java.math.BigDecimal;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * {@link FieldSetMapper} calling the constructor and setters of the target type directly.
+ * <p>
+ * The calls are generated once at startup, so mapping a record involves no reflection or {@code BeanWrapper}. The
+ * {@code names} must be in the same order as the names of the line tokenizer, and the fields are bound by index.
+ * {@code String} properties receive the trimmed token, like the values {@code BeanWrapperFieldSetMapper} binds from
+ * {@link FieldSet#getProperties()}. Numeric and boolean properties are read with the {@link FieldSet} conversion
+ * methods, and empty tokens set {@code null} on wrapper types.
+ * </p>
+ * <p>
+ * Unlike {@code BeanWrapperFieldSetMapper}, an unparseable numeric token fails with the
+ * {@link NumberFormatException} of the {@link FieldSet} conversion method instead of a {@code BindException}. The
+ * line-based readers wrap it in a {@code FlatFileParseException} either way.
+ * </p>
+ *
+ * @param <T> target type
+ * @since 5.5.0
+ */
+public class LambdaFieldSetMapper<T> implements FieldSetMapper<T>, InitializingBean {
+
+    private Class<T> targetType;
+
+    private String[] names;
+
+    private Supplier<T> constructor;
+
+    private FieldBinder<T>[] binders;
+
+    public void setTargetType(Class<T> targetType) {
+        this.targetType = targetType;
+    }
+
+    public void setNames(String[] names) {
+        this.names = names;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void afterPropertiesSet() {
+        Assert.notNull(targetType, "targetType is required.");
+        Assert.notEmpty(names, "names are required.");
+
+        constructor = LambdaAccessors.constructor(targetType);
+        binders = new FieldBinder[names.length];
+        for (int i = 0; i < names.length; i++) {
+            binders[i] = binder(names[i].trim());
+        }
+    }
+
+    @Override
+    public T mapFieldSet(FieldSet fieldSet) {
+        T target = constructor.get();
+        for (int i = 0; i < binders.length; i++) {
+            binders[i].bind(target, fieldSet, i);
+        }
+        return target;
+    }
+
+    private FieldBinder<T> binder(String name) {
+        Class<?> type = LambdaAccessors.propertyType(targetType, name);
+        if (type == int.class) {
+            ObjIntConsumer<T> setter = LambdaAccessors.intSetter(targetType, name);
+            return (target, fieldSet, index) -> setter.accept(target, fieldSet.readInt(index));
+        }
+        if (type == long.class) {
+            ObjLongConsumer<T> setter = LambdaAccessors.longSetter(targetType, name);
+            return (target, fieldSet, index) -> setter.accept(target, fieldSet.readLong(index));
+        }
+
+        BiConsumer<T, Object> setter = LambdaAccessors.setter(targetType, name);
+        if (type == String.class) {
+            return (target, fieldSet, index) -> setter.accept(target, fieldSet.readString(index));
+        }
+        if (type == Integer.class) {
+            return (target, fieldSet, index) -> setter.accept(target, isEmpty(fieldSet, index) ? null
+                    : fieldSet.readInt(index));
+        }
+        if (type == Long.class) {
+            return (target, fieldSet, index) -> setter.accept(target, isEmpty(fieldSet, index) ? null
+                    : fieldSet.readLong(index));
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return (target, fieldSet, index) -> setter.accept(target, fieldSet.readBoolean(index));
+        }
+        if (type == BigDecimal.class) {
+            return (target, fieldSet, index) -> setter.accept(target, fieldSet.readBigDecimal(index));
+        }
+        throw new IllegalArgumentException("Unsupported type " + type.getName() + " of property '" + name + "' in "
+                + targetType.getName());
+    }
+
+    private static boolean isEmpty(FieldSet fieldSet, int index) {
+        return fieldSet.readString(index).isEmpty();
+    }
+
+    @FunctionalInterface
+    private interface FieldBinder<T> {
+
+        void bind(T target, FieldSet fieldSet, int index);
+    }
+}
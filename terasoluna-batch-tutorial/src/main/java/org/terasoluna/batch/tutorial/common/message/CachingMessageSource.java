@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.message;
+
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Message source caching the resolved messages of the resource bundles.
+ * <p>
+ * The message format of each (code, locale) is compiled once. When every argument is an immutable value such as a
+ * {@link String} or a boxed number, the formatted message is also cached per (code, arguments, locale), so resolving
+ * the same message again costs only a map lookup. Up to {@code maxCachedMessages} formatted messages are cached; other
+ * messages are formatted with the compiled format on every call. Arguments of other types, and
+ * {@link MessageSourceResolvable}s, are resolved by the underlying {@link ResourceBundleMessageSource}.
+ * </p>
+ * <p>
+ * The resource bundles are not reloaded, so the cache is never invalidated.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class CachingMessageSource implements MessageSource {
+
+    private static final Set<Class<?>> CONSTANT_ARGUMENT_TYPES = Set.of(String.class, Integer.class, Long.class,
+            Short.class, Byte.class, Double.class, Float.class, Boolean.class, Character.class, BigInteger.class,
+            BigDecimal.class);
+
+    private final ResourceBundleMessageSource bundleMessageSource = new ResourceBundleMessageSource();
+
+    private final ConcurrentMap<FormatKey, CompiledFormat> formats = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<MessageKey, String> messages = new ConcurrentHashMap<>();
+
+    private int maxCachedMessages = 1024;
+
+    public void setBasenames(String... basenames) {
+        bundleMessageSource.setBasenames(basenames);
+    }
+
+    public void setDefaultEncoding(String defaultEncoding) {
+        bundleMessageSource.setDefaultEncoding(defaultEncoding);
+    }
+
+    public void setMaxCachedMessages(int maxCachedMessages) {
+        this.maxCachedMessages = maxCachedMessages;
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, String defaultMessage, Locale locale) {
+        try {
+            return getMessage(code, args, locale);
+        } catch (NoSuchMessageException e) {
+            return bundleMessageSource.getMessage(code, args, defaultMessage, locale);
+        }
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, Locale locale) throws NoSuchMessageException {
+        Locale resolvedLocale = locale != null ? locale : Locale.getDefault();
+        if (!isConstant(args)) {
+            return bundleMessageSource.getMessage(code, args, resolvedLocale);
+        }
+
+        MessageKey key = new MessageKey(code, args, resolvedLocale);
+        String message = messages.get(key);
+        if (message == null) {
+            message = compiledFormat(code, resolvedLocale).format(args);
+            if (messages.size() < maxCachedMessages) {
+                messages.putIfAbsent(key.copy(), message);
+            }
+        }
+        return message;
+    }
+
+    @Override
+    public String getMessage(MessageSourceResolvable resolvable, Locale locale) throws NoSuchMessageException {
+        return bundleMessageSource.getMessage(resolvable, locale != null ? locale : Locale.getDefault());
+    }
+
+    private CompiledFormat compiledFormat(String code, Locale locale) {
+        FormatKey key = new FormatKey(code, locale);
+        CompiledFormat format = formats.get(key);
+        if (format == null) {
+            // without arguments the bundle returns the message as it is, which is the pattern to compile.
+            format = new CompiledFormat(bundleMessageSource.getMessage(code, null, locale), locale);
+            CompiledFormat existing = formats.putIfAbsent(key, format);
+            if (existing != null) {
+                format = existing;
+            }
+        }
+        return format;
+    }
+
+    private static boolean isConstant(Object[] args) {
+        if (args == null) {
+            return true;
+        }
+        for (Object arg : args) {
+            if (arg != null && !CONSTANT_ARGUMENT_TYPES.contains(arg.getClass())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Message format compiled from a pattern. A message without arguments is the pattern itself, as in
+     * {@link ResourceBundleMessageSource}.
+     */
+    private static final class CompiledFormat {
+
+        private final String pattern;
+
+        private final MessageFormat messageFormat;
+
+        CompiledFormat(String pattern, Locale locale) {
+            this.pattern = pattern;
+            this.messageFormat = new MessageFormat(pattern, locale);
+        }
+
+        String format(Object[] args) {
+            if (args == null || args.length == 0) {
+                return pattern;
+            }
+            synchronized (messageFormat) {
+                return messageFormat.format(args);
+            }
+        }
+    }
+
+    private static final class FormatKey {
+
+        private final String code;
+
+        private final Locale locale;
+
+        FormatKey(String code, Locale locale) {
+            this.code = code;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof FormatKey)) {
+                return false;
+            }
+            FormatKey that = (FormatKey) other;
+            return code.equals(that.code) && locale.equals(that.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * code.hashCode() + locale.hashCode();
+        }
+    }
+
+    private static final class MessageKey {
+
+        private final String code;
+
+        private final Object[] args;
+
+        private final Locale locale;
+
+        private final int hash;
+
+        MessageKey(String code, Object[] args, Locale locale) {
+            this.code = code;
+            this.args = args;
+            this.locale = locale;
+            this.hash = 31 * (31 * code.hashCode() + Arrays.hashCode(args)) + locale.hashCode();
+        }
+
+        /**
+         * Returns a key owning a copy of the arguments, so that a caller reusing its array cannot change a cached
+         * key.
+         */
+        MessageKey copy() {
+            return new MessageKey(code, args != null ? args.clone() : null, locale);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof MessageKey)) {
+                return false;
+            }
+            MessageKey that = (MessageKey) other;
+            return hash == that.hash && code.equals(that.code) && Arrays.equals(args, that.args) && locale.equals(
+                    that.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.metrics;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.jmx.JmxConfig;
+import io.micrometer.jmx.JmxMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory of the {@link MeterRegistry} of the batch application.
+ * <p>
+ * {@code registries} is a comma-separated list of the registries to export to, all of which work without a server:
+ * </p>
+ * <ul>
+ * <li>{@code prometheus} : Prometheus text format written to {@code prometheusFile} every {@code exportInterval}
+ * seconds and when the context is closed. The file is replaced atomically, so it can be read by the textfile collector
+ * of node_exporter.</li>
+ * <li>{@code jmx} : MBeans in the {@code metrics} domain.</li>
+ * <li>{@code simple} : in-memory only.</li>
+ * </ul>
+ * <p>
+ * An empty list or {@code none}, the default, creates a registry without exports, whose meters do nothing. The registry is also
+ * added to the global registry, so the metrics of Spring Batch itself are exported together.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class MeterRegistryFactoryBean implements FactoryBean<MeterRegistry>, InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(MeterRegistryFactoryBean.class);
+
+    private String registries = "none";
+
+    private String prometheusFile;
+
+    private long exportInterval = 10;
+
+    private CompositeMeterRegistry meterRegistry;
+
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+
+    private ScheduledExecutorService exporter;
+
+    public void setRegistries(String registries) {
+        this.registries = registries;
+    }
+
+    public void setPrometheusFile(String prometheusFile) {
+        this.prometheusFile = prometheusFile;
+    }
+
+    public void setExportInterval(long exportInterval) {
+        this.exportInterval = exportInterval;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        meterRegistry = new CompositeMeterRegistry();
+        for (String registry : StringUtils.commaDelimitedListToStringArray(registries)) {
+            switch (registry.trim()) {
+            case "prometheus":
+                prometheusMeterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+                meterRegistry.add(prometheusMeterRegistry);
+                break;
+            case "jmx":
+                meterRegistry.add(new JmxMeterRegistry(JmxConfig.DEFAULT, Clock.SYSTEM));
+                break;
+            case "simple":
+                meterRegistry.add(new SimpleMeterRegistry());
+                break;
+            case "none":
+            case "":
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown meter registry. [" + registry + "]");
+            }
+        }
+
+        if (prometheusMeterRegistry != null && StringUtils.hasText(prometheusFile) && exportInterval > 0) {
+            exporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "prometheus-file-exporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            exporter.scheduleAtFixedRate(this::writePrometheusFile, exportInterval, exportInterval,
+                    TimeUnit.SECONDS);
+        }
+        Metrics.addRegistry(meterRegistry);
+    }
+
+    @Override
+    public MeterRegistry getObject() {
+        return meterRegistry;
+    }
+
+    @Override
+    public Class<?> getObjectType() {
+        return MeterRegistry.class;
+    }
+
+    @Override
+    public void destroy() {
+        if (exporter != null) {
+            exporter.shutdownNow();
+        }
+        if (prometheusMeterRegistry != null && StringUtils.hasText(prometheusFile)) {
+            writePrometheusFile();
+        }
+        Metrics.removeRegistry(meterRegistry);
+        meterRegistry.close();
+    }
+
+    private void writePrometheusFile() {
+        Path target = Paths.get(prometheusFile);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.write(temporary, prometheusMeterRegistry.scrape().getBytes(StandardCharsets.UTF_8));
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("The metrics could not be written. [{}]", prometheusFile, e);
+        }
+    }
+}
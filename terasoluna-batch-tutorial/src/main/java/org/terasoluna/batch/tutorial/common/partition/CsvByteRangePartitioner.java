@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.partition;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+import org.terasoluna.batch.tutorial.common.reader.MemberInfoMappedFileItemReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Partitioner splitting a CSV file into byte ranges aligned on record boundaries.
+ * <p>
+ * The file is split near {@code size * i / gridSize}, moved forward to the start of the next record. Record boundaries
+ * are found by one sequential scan that follows the quoting and record separator rules of
+ * {@link MemberInfoMappedFileItemReader}, so line breaks inside quoted fields never split a record and CRLF, LF and a
+ * lone CR end a record exactly where the reader ends it. Each partition receives {@code startOffset} (inclusive), {@code endOffset} (exclusive)
+ * and {@code partName}, its partition name, in its step execution context. Ranges that would be empty are dropped.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class CsvByteRangePartitioner implements Partitioner, InitializingBean {
+
+    public static final String START_OFFSET_KEY = "startOffset";
+
+    public static final String END_OFFSET_KEY = "endOffset";
+
+    public static final String PART_NAME_KEY = "partName";
+
+    private static final String PARTITION_NAME_PREFIX = "partition";
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private static final byte DELIMITER = ',';
+
+    private static final byte QUOTE = '"';
+
+    private static final byte LF = '\n';
+
+    private static final byte CR = '\r';
+
+    private static final int FIELD_START = 0;
+
+    private static final int UNQUOTED = 1;
+
+    private static final int QUOTED = 2;
+
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    private Resource resource;
+
+    public void setResource(Resource resource) {
+        this.resource = resource;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(resource, "resource is required.");
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        long[] boundaries;
+        try {
+            boundaries = findBoundaries(Math.max(1, gridSize));
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to split input resource: " + resource, e);
+        }
+
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>(boundaries.length);
+        for (int i = 0; i < boundaries.length - 1; i++) {
+            if (boundaries[i] == boundaries[i + 1] && !partitions.isEmpty()) {
+                continue;
+            }
+            String name = String.format("%s%04d", PARTITION_NAME_PREFIX, partitions.size());
+            ExecutionContext context = new ExecutionContext();
+            context.putLong(START_OFFSET_KEY, boundaries[i]);
+            context.putLong(END_OFFSET_KEY, boundaries[i + 1]);
+            context.putString(PART_NAME_KEY, name);
+            partitions.put(name, context);
+        }
+        return partitions;
+    }
+
+    private long[] findBoundaries(int gridSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] boundaries = new long[gridSize + 1];
+            Arrays.fill(boundaries, 1, boundaries.length, size);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long position = 0;
+            int state = FIELD_START;
+            int next = 1;
+            boolean pendingCr = false;
+
+            while (next < gridSize && channel.read(buffer) > 0) {
+                buffer.flip();
+                while (buffer.hasRemaining() && next < gridSize) {
+                    byte b = buffer.get();
+                    position++;
+                    if (pendingCr) {
+                        pendingCr = false;
+                        if (MemberInfoMappedFileItemReader.isRecordEnd(CR, b)) {
+                            next = markBoundary(boundaries, next, position - 1, size, gridSize);
+                        }
+                    }
+                    switch (state) {
+                    case QUOTED:
+                        if (b == QUOTE) {
+                            state = QUOTE_IN_QUOTED;
+                        }
+                        continue;
+                    case QUOTE_IN_QUOTED:
+                        if (b == QUOTE) {
+                            state = QUOTED;
+                            continue;
+                        }
+                        break;
+                    case FIELD_START:
+                        if (b == QUOTE) {
+                            state = QUOTED;
+                            continue;
+                        }
+                        break;
+                    default:
+                        break;
+                    }
+
+                    if (b == DELIMITER) {
+                        state = FIELD_START;
+                    } else if (b == CR) {
+                        state = FIELD_START;
+                        pendingCr = true;
+                    } else if (MemberInfoMappedFileItemReader.isRecordEnd(b, -1)) {
+                        state = FIELD_START;
+                        next = markBoundary(boundaries, next, position, size, gridSize);
+                    } else {
+                        state = UNQUOTED;
+                    }
+                }
+                buffer.clear();
+            }
+            return boundaries;
+        }
+    }
+
+    /**
+     * Records {@code recordEnd} as every boundary whose target offset it has reached.
+     *
+     * @return index of the next boundary to find
+     */
+    private static int markBoundary(long[] boundaries, int next, long recordEnd, long size, int gridSize) {
+        while (next < gridSize && recordEnd >= size * next / gridSize) {
+            boundaries[next++] = recordEnd;
+        }
+        return next;
+    }
+}
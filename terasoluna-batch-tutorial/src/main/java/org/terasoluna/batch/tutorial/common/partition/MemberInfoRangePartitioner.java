@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.partition;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.stereotype.Component;
+import org.terasoluna.batch.tutorial.common.repository.MemberInfoRepository;
+
+import jakarta.inject.Inject;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Partitioner splitting member_info into contiguous id ranges.
+ * <p>
+ * The boundaries are the ids at the row quantiles of the table, so every partition holds nearly the same number of
+ * rows even if the id key space is sparse. Each partition receives {@code fromId} (inclusive) and {@code toId}
+ * (exclusive) in its step execution context. The first and last partitions are open-ended.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+@Component
+public class MemberInfoRangePartitioner implements Partitioner {
+
+    public static final String FROM_ID_KEY = "fromId";
+
+    public static final String TO_ID_KEY = "toId";
+
+    private static final String PARTITION_NAME_PREFIX = "partition";
+
+    @Inject
+    MemberInfoRepository memberInfoRepository;
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        long count = memberInfoRepository.count();
+        int partitionSize = (int) Math.max(1, Math.min(gridSize, count));
+
+        String[] boundaries = new String[partitionSize + 1];
+        for (int i = 1; i < partitionSize; i++) {
+            boundaries[i] = memberInfoRepository.findIdByOffset(null, count * i / partitionSize);
+        }
+
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>(partitionSize);
+        for (int i = 0; i < partitionSize; i++) {
+            ExecutionContext context = new ExecutionContext();
+            context.put(FROM_ID_KEY, boundaries[i]);
+            context.put(TO_ID_KEY, boundaries[i + 1]);
+            partitions.put(String.format("%s%04d", PARTITION_NAME_PREFIX, i), context);
+        }
+        return partitions;
+    }
+}
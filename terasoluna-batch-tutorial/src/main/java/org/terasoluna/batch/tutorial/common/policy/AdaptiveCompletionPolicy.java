@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.policy;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.batch.repeat.policy.CompletionPolicySupport;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completion policy adapting the chunk size toward a target transaction duration.
+ * <p>
+ * The duration of each chunk, from {@link #beforeChunk(ChunkContext)} to {@link #afterChunk(ChunkContext)}, covers
+ * read, process, write and commit. The next chunk size is the size that would have taken {@code targetChunkMillis} at
+ * the measured rate, limited to half or double the current size per chunk and to {@code minChunkSize} and
+ * {@code maxChunkSize}.
+ * </p>
+ * <p>
+ * The current size and the sizes chosen so far are kept in the step execution context, so one bean can serve
+ * concurrent step executions and a restarted step continues with the last chosen size. In a chunk step, set it as
+ * {@code chunk-completion-policy} and register it as a step listener. A tasklet calls
+ * {@link #getChunkSize(StepExecution)} and {@link #chunkCompleted(StepExecution, int, long)} around each chunk it
+ * writes.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class AdaptiveCompletionPolicy extends CompletionPolicySupport implements ChunkListener, InitializingBean {
+
+    public static final String CHUNK_SIZE_KEY = "adaptiveCompletionPolicy.chunkSize";
+
+    public static final String MIN_CHOSEN_CHUNK_SIZE_KEY = "adaptiveCompletionPolicy.minChosenChunkSize";
+
+    public static final String MAX_CHOSEN_CHUNK_SIZE_KEY = "adaptiveCompletionPolicy.maxChosenChunkSize";
+
+    public static final String LAST_CHUNK_MILLIS_KEY = "adaptiveCompletionPolicy.lastChunkMillis";
+
+    private static final String START_NANOS_ATTRIBUTE = AdaptiveCompletionPolicy.class.getName() + ".startNanos";
+
+    private static final String START_READ_COUNT_ATTRIBUTE = AdaptiveCompletionPolicy.class.getName()
+            + ".startReadCount";
+
+    private int minChunkSize = 10;
+
+    private int maxChunkSize = 10000;
+
+    private long targetChunkMillis = 1000;
+
+    public void setMinChunkSize(int minChunkSize) {
+        this.minChunkSize = minChunkSize;
+    }
+
+    public void setMaxChunkSize(int maxChunkSize) {
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    public void setTargetChunkMillis(long targetChunkMillis) {
+        this.targetChunkMillis = targetChunkMillis;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.isTrue(minChunkSize > 0, "minChunkSize must be greater than 0.");
+        Assert.isTrue(maxChunkSize >= minChunkSize, "maxChunkSize must not be less than minChunkSize.");
+        Assert.isTrue(targetChunkMillis > 0, "targetChunkMillis must be greater than 0.");
+    }
+
+    /**
+     * Returns the size of the next chunk of the given step execution.
+     *
+     * @param stepExecution step execution
+     * @return chunk size
+     */
+    public int getChunkSize(StepExecution stepExecution) {
+        return stepExecution.getExecutionContext().getInt(CHUNK_SIZE_KEY, minChunkSize);
+    }
+
+    /**
+     * Records a completed chunk and chooses the size of the next one.
+     *
+     * @param stepExecution step execution
+     * @param itemCount number of items of the completed chunk
+     * @param elapsedNanos duration of the completed chunk including its commit
+     * @return size of the next chunk
+     */
+    public int chunkCompleted(StepExecution stepExecution, int itemCount, long elapsedNanos) {
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+        int current = getChunkSize(stepExecution);
+        if (itemCount <= 0 || elapsedNanos <= 0) {
+            return current;
+        }
+
+        double ideal = (double) itemCount * TimeUnit.MILLISECONDS.toNanos(targetChunkMillis) / elapsedNanos;
+        double bounded = Math.min(Math.max(ideal, current / 2.0), current * 2.0);
+        int next = (int) Math.min(Math.max(Math.round(bounded), minChunkSize), maxChunkSize);
+
+        executionContext.putInt(CHUNK_SIZE_KEY, next);
+        executionContext.putLong(LAST_CHUNK_MILLIS_KEY, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        executionContext.putInt(MIN_CHOSEN_CHUNK_SIZE_KEY, Math.min(next, executionContext.getInt(
+                MIN_CHOSEN_CHUNK_SIZE_KEY, next)));
+        executionContext.putInt(MAX_CHOSEN_CHUNK_SIZE_KEY, Math.max(next, executionContext.getInt(
+                MAX_CHOSEN_CHUNK_SIZE_KEY, next)));
+        return next;
+    }
+
+    @Override
+    public RepeatContext start(RepeatContext parent) {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        int chunkSize = stepContext != null ? getChunkSize(stepContext.getStepExecution()) : minChunkSize;
+        return new ChunkSizeContext(parent, chunkSize);
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context) {
+        return ((ChunkSizeContext) context).getStartedCount() >= ((ChunkSizeContext) context).chunkSize;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        context.setAttribute(START_NANOS_ATTRIBUTE, System.nanoTime());
+        context.setAttribute(START_READ_COUNT_ATTRIBUTE, context.getStepContext().getStepExecution().getReadCount());
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        Object startNanos = context.removeAttribute(START_NANOS_ATTRIBUTE);
+        Object startReadCount = context.removeAttribute(START_READ_COUNT_ATTRIBUTE);
+        if (startNanos == null || startReadCount == null) {
+            return;
+        }
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        int itemCount = (int) (stepExecution.getReadCount() - (Long) startReadCount);
+        chunkCompleted(stepExecution, itemCount, System.nanoTime() - (Long) startNanos);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        context.removeAttribute(START_NANOS_ATTRIBUTE);
+        context.removeAttribute(START_READ_COUNT_ATTRIBUTE);
+    }
+
+    private static class ChunkSizeContext extends RepeatContextSupport {
+
+        private final int chunkSize;
+
+        ChunkSizeContext(RepeatContext parent, int chunkSize) {
+            super(parent);
+            this.chunkSize = chunkSize;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.reader;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.terasoluna.batch.tutorial.common.dto.MemberInfoDto;
+import org.terasoluna.batch.tutorial.common.repository.MemberInfoRepository;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reader of member_info using keyset pagination instead of a long-lived cursor.
+ * <p>
+ * Each page is fetched by {@code WHERE id > lastId ORDER BY id LIMIT pageSize}, so no connection or snapshot is held
+ * between pages. The id of the last item returned is saved in the step execution context, and a restart resumes right
+ * after it.
+ * </p>
+ * <p>
+ * Pages are always fetched on a dedicated thread, outside of the chunk transaction, so the query runs in its own short
+ * transaction and does not bind a non-batch {@code SqlSession} to the transaction of the batch-mode writer. When
+ * {@code prefetch} is enabled, the next page is requested as soon as the current one arrives and overlaps with the
+ * processing of the current page.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class MemberInfoKeysetPagingItemReader extends ItemStreamSupport implements ItemStreamReader<MemberInfoDto>,
+                                               InitializingBean {
+
+    private static final String LAST_ID_KEY = "lastId";
+
+    private MemberInfoRepository memberInfoRepository;
+
+    private int pageSize = 1000;
+
+    private boolean prefetch = true;
+
+    private ExecutorService fetchExecutor;
+
+    private Future<List<MemberInfoDto>> prefetchedPage;
+
+    private Iterator<MemberInfoDto> currentPage;
+
+    private String pageLastId;
+
+    private String lastReturnedId;
+
+    private boolean exhausted;
+
+    public MemberInfoKeysetPagingItemReader() {
+        setName(ClassUtils.getShortName(MemberInfoKeysetPagingItemReader.class));
+    }
+
+    public void setMemberInfoRepository(MemberInfoRepository memberInfoRepository) {
+        this.memberInfoRepository = memberInfoRepository;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public void setPrefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(memberInfoRepository, "memberInfoRepository is required.");
+        Assert.isTrue(pageSize > 0, "pageSize must be greater than 0.");
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        String key = getExecutionContextKey(LAST_ID_KEY);
+        lastReturnedId = executionContext.containsKey(key) ? executionContext.getString(key) : null;
+        pageLastId = lastReturnedId;
+        currentPage = null;
+        exhausted = false;
+        fetchExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, getExecutionContextKey("fetch"));
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public MemberInfoDto read() throws Exception {
+        while (currentPage == null || !currentPage.hasNext()) {
+            if (exhausted) {
+                return null;
+            }
+            currentPage = nextPage().iterator();
+        }
+        MemberInfoDto item = currentPage.next();
+        lastReturnedId = item.getId();
+        return item;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (lastReturnedId != null) {
+            executionContext.putString(getExecutionContextKey(LAST_ID_KEY), lastReturnedId);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (prefetchedPage != null) {
+            prefetchedPage.cancel(true);
+            prefetchedPage = null;
+        }
+        if (fetchExecutor != null) {
+            fetchExecutor.shutdownNow();
+            fetchExecutor = null;
+        }
+        currentPage = null;
+    }
+
+    private List<MemberInfoDto> nextPage() throws Exception {
+        Future<List<MemberInfoDto>> page = prefetchedPage != null ? prefetchedPage : fetch(pageLastId);
+        prefetchedPage = null;
+
+        List<MemberInfoDto> items;
+        try {
+            items = page.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+
+        if (items.size() < pageSize) {
+            exhausted = true;
+        } else {
+            pageLastId = items.get(items.size() - 1).getId();
+            if (prefetch) {
+                prefetchedPage = fetch(pageLastId);
+            }
+        }
+        return items;
+    }
+
+    private Future<List<MemberInfoDto>> fetch(final String lastId) {
+        Assert.state(fetchExecutor != null, "Reader must be open before it can be read.");
+        return fetchExecutor.submit(() -> memberInfoRepository.findPage(lastId, pageSize));
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.reader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamSupport;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.ResourceAwareItemReaderItemStream;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.terasoluna.batch.tutorial.common.dto.MemberInfoDto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reader of member_info CSV records scanning a memory-mapped file.
+ * <p>
+ * Records of {@code id,type,status,point} are parsed directly over the bytes of the file, mapped in windows of
+ * {@code mapSize} bytes. Delimiters, quotes and line breaks are ASCII bytes, which never appear inside a multi-byte
+ * character of an ASCII compatible encoding such as MS932, so no line {@code String}, token array or
+ * {@code FieldSet} is built. Fields made only of ASCII bytes are turned into strings without decoding, single
+ * character fields reuse shared instances, and {@code point} is parsed from the bytes.
+ * </p>
+ * <p>
+ * Quoted fields may contain delimiters, line breaks and doubled quotes. The byte offset of the next record is saved in
+ * the step execution context and a restart resumes from it. {@code startOffset} and {@code endOffset} limit the reader
+ * to the records starting in that byte range, and must be on record boundaries.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class MemberInfoMappedFileItemReader extends ItemStreamSupport implements
+                                            ResourceAwareItemReaderItemStream<MemberInfoDto>, InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemberInfoMappedFileItemReader.class);
+
+    private static final String OFFSET_KEY = "offset";
+
+    private static final String RECORD_COUNT_KEY = "record.count";
+
+    private static final int FIELD_COUNT = 4;
+
+    private static final byte DELIMITER = ',';
+
+    private static final byte QUOTE = '"';
+
+    private static final byte LF = '\n';
+
+    private static final byte CR = '\r';
+
+    private static final String[] SINGLE_ASCII_STRINGS = new String[128];
+
+    static {
+        for (int i = 0; i < SINGLE_ASCII_STRINGS.length; i++) {
+            SINGLE_ASCII_STRINGS[i] = String.valueOf((char) i).intern();
+        }
+    }
+
+    private Resource resource;
+
+    private Charset charset = Charset.forName("MS932");
+
+    private boolean strict = true;
+
+    private long startOffset = 0;
+
+    private long endOffset = -1;
+
+    private int mapSize = 64 * 1024 * 1024;
+
+    private FileChannel channel;
+
+    private long fileSize;
+
+    private long limit;
+
+    private MappedByteBuffer window;
+
+    private long windowStart;
+
+    private int windowLength;
+
+    private long position;
+
+    private long recordCount;
+
+    private byte[] field = new byte[64];
+
+    private int fieldLength;
+
+    public MemberInfoMappedFileItemReader() {
+        setName(ClassUtils.getShortName(MemberInfoMappedFileItemReader.class));
+    }
+
+    @Override
+    public void setResource(Resource resource) {
+        this.resource = resource;
+    }
+
+    public void setEncoding(String encoding) {
+        this.charset = Charset.forName(encoding);
+    }
+
+    public void setStrict(boolean strict) {
+        this.strict = strict;
+    }
+
+    public void setStartOffset(long startOffset) {
+        this.startOffset = startOffset;
+    }
+
+    public void setEndOffset(long endOffset) {
+        this.endOffset = endOffset;
+    }
+
+    public void setMapSize(int mapSize) {
+        this.mapSize = mapSize;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.isTrue(isAsciiCompatible(charset), "encoding must be ASCII compatible.");
+        Assert.isTrue(startOffset >= 0, "startOffset must not be negative.");
+        Assert.isTrue(mapSize > 0, "mapSize must be greater than 0.");
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        Assert.notNull(resource, "resource is required.");
+        String offsetKey = getExecutionContextKey(OFFSET_KEY);
+        position = executionContext.containsKey(offsetKey) ? executionContext.getLong(offsetKey) : startOffset;
+        recordCount = executionContext.getLong(getExecutionContextKey(RECORD_COUNT_KEY), 0L);
+        window = null;
+        windowLength = 0;
+
+        if (!resource.exists()) {
+            if (strict) {
+                throw new ItemStreamException("Input resource must exist (reader is in 'strict' mode): " + resource);
+            }
+            logger.warn("Input resource does not exist {}", resource.getDescription());
+            limit = 0;
+            return;
+        }
+
+        try {
+            channel = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+            fileSize = channel.size();
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to open input resource: " + resource, e);
+        }
+        limit = endOffset < 0 ? fileSize : Math.min(endOffset, fileSize);
+    }
+
+    @Override
+    public MemberInfoDto read() throws Exception {
+        if (channel == null || position >= limit) {
+            return null;
+        }
+
+        long recordStart = position;
+        recordCount++;
+        MemberInfoDto item = new MemberInfoDto();
+        String error = null;
+        int fieldCount = 0;
+        boolean endOfRecord = false;
+
+        while (!endOfRecord) {
+            endOfRecord = !readField(recordStart);
+            switch (fieldCount++) {
+            case 0:
+                item.setId(fieldAsString());
+                break;
+            case 1:
+                item.setType(fieldAsString());
+                break;
+            case 2:
+                item.setStatus(fieldAsString());
+                break;
+            case 3:
+                if (!parsePoint(item)) {
+                    error = "Unparseable point: [" + fieldAsString() + "]";
+                }
+                break;
+            default:
+                break;
+            }
+        }
+
+        if (fieldCount != FIELD_COUNT) {
+            error = "Incorrect number of tokens found in record: expected " + FIELD_COUNT + " actual " + fieldCount;
+        }
+        if (error != null) {
+            throw parseError(error, recordStart);
+        }
+        return item;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(getExecutionContextKey(OFFSET_KEY), position);
+        executionContext.putLong(getExecutionContextKey(RECORD_COUNT_KEY), recordCount);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        window = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new ItemStreamException("Failed to close input resource: " + resource, e);
+            } finally {
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Copies the next field into {@code field} and moves past its delimiter.
+     *
+     * @return {@code true} if the field is followed by a delimiter, {@code false} if it ends the record
+     */
+    private boolean readField(long recordStart) throws IOException {
+        fieldLength = 0;
+        if (position < fileSize && byteAt(position) == QUOTE) {
+            position++;
+            while (true) {
+                if (position >= fileSize) {
+                    throw parseError("Unclosed quotation mark in record.", recordStart);
+                }
+                byte b = byteAt(position++);
+                if (b == QUOTE) {
+                    if (position < fileSize && byteAt(position) == QUOTE) {
+                        position++;
+                    } else {
+                        break;
+                    }
+                }
+                append(b);
+            }
+        }
+        while (position < fileSize) {
+            byte b = byteAt(position++);
+            if (b == DELIMITER) {
+                return true;
+            }
+            if (b == LF || b == CR) {
+                if (isRecordEnd(b, position < fileSize ? byteAt(position) : -1)) {
+                    return false;
+                }
+                continue;
+            }
+            append(b);
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether a record ends with the unquoted byte {@code b}.
+     * <p>
+     * A record ends with LF, or with CR not followed by LF, so CRLF, LF and a lone CR are all record separators. This
+     * rule is shared with {@link org.terasoluna.batch.tutorial.common.partition.CsvByteRangePartitioner} so partition
+     * boundaries always match the records this reader sees.
+     * </p>
+     *
+     * @param b unquoted byte
+     * @param next byte following {@code b}, or {@code -1} at the end of the file
+     * @return {@code true} if the record ends with {@code b}
+     */
+    public static boolean isRecordEnd(byte b, int next) {
+        return b == LF || (b == CR && next != LF);
+    }
+
+    private byte byteAt(long offset) throws IOException {
+        if (offset < windowStart || offset >= windowStart + windowLength) {
+            windowStart = offset;
+            windowLength = (int) Math.min(mapSize, fileSize - offset);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+        }
+        return window.get((int) (offset - windowStart));
+    }
+
+    private void append(byte b) {
+        if (fieldLength == field.length) {
+            field = Arrays.copyOf(field, field.length * 2);
+        }
+        field[fieldLength++] = b;
+    }
+
+    private String fieldAsString() {
+        if (fieldLength == 1 && field[0] >= 0) {
+            return SINGLE_ASCII_STRINGS[field[0]];
+        }
+        for (int i = 0; i < fieldLength; i++) {
+            if (field[i] < 0) {
+                return new String(field, 0, fieldLength, charset);
+            }
+        }
+        return new String(field, 0, fieldLength, StandardCharsets.ISO_8859_1);
+    }
+
+    private boolean parsePoint(MemberInfoDto item) {
+        int i = 0;
+        boolean negative = false;
+        if (fieldLength > 0 && (field[0] == '-' || field[0] == '+')) {
+            negative = field[0] == '-';
+            i++;
+        }
+        if (i == fieldLength) {
+            return false;
+        }
+        long value = 0;
+        for (; i < fieldLength; i++) {
+            int digit = field[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return false;
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            return false;
+        }
+        item.setPoint((int) value);
+        return true;
+    }
+
+    private FlatFileParseException parseError(String message, long recordStart) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate((int) Math.min(position - recordStart, Integer.MAX_VALUE));
+        channel.read(record, recordStart);
+        String input = new String(record.array(), 0, record.position(), charset);
+        return new FlatFileParseException(message + " in " + resource.getDescription() + " at byte offset "
+                + recordStart, input, (int) recordCount);
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        byte[] ascii = new byte[128];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (byte) i;
+        }
+        return Arrays.equals(ascii, new String(ascii, StandardCharsets.US_ASCII).getBytes(charset));
+    }
+}
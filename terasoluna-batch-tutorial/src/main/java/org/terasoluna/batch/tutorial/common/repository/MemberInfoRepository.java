@@ -17,10 +17,29 @@ package org.terasoluna.batch.tutorial.common.repository;
 
 import org.terasoluna.batch.tutorial.common.dto.MemberInfoDto;
 
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.cursor.Cursor;
 
+import java.util.List;
+
 public interface MemberInfoRepository {
     Cursor<MemberInfoDto> cursor();
 
+    Cursor<MemberInfoDto> cursorByStatus(@Param("status") String status);
+
+    Cursor<MemberInfoDto> cursorByIdRange(@Param("fromId") String fromId, @Param("toId") String toId);
+
+    List<MemberInfoDto> findPage(@Param("lastId") String lastId, @Param("pageSize") int pageSize);
+
+    long count();
+
+    long countByIdRange(@Param("fromId") String fromId, @Param("toId") String toId);
+
+    String findIdByOffset(@Param("fromId") String fromId, @Param("offset") long offset);
+
     int updatePointAndStatus(MemberInfoDto memberInfo);
+
+    int updatePointAndStatusByIdRange(@Param("fromId") String fromId, @Param("toId") String toId);
+
+    int insertReject(MemberInfoDto memberInfo);
 }
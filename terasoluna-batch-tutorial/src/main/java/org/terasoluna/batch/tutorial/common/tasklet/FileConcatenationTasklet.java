@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.tasklet;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+import org.terasoluna.batch.tutorial.common.partition.CsvByteRangePartitioner;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tasklet concatenating the part files written by a partitioned step into one file.
+ * <p>
+ * The parts are taken from the partitions of {@code partitionStepName} in the latest execution of the job instance
+ * that ran them: each partition writes {@code <resource>.<partName>}, where {@code partName} is read from its step
+ * execution context. Part files left by an earlier job instance are therefore never picked up, and a restart after
+ * this step failed still finds the parts written by the completed partitioned step of the previous execution. The parts are appended in the order of their names with
+ * {@link FileChannel#transferTo}, so the bytes are copied by the operating system without passing through the heap.
+ * The parts are deleted afterwards unless {@code deleteParts} is {@code false}.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class FileConcatenationTasklet implements Tasklet, InitializingBean {
+
+    private Resource resource;
+
+    private String partitionStepName;
+
+    private JobExplorer jobExplorer;
+
+    private boolean deleteParts = true;
+
+    public void setResource(Resource resource) {
+        this.resource = resource;
+    }
+
+    public void setPartitionStepName(String partitionStepName) {
+        this.partitionStepName = partitionStepName;
+    }
+
+    public void setJobExplorer(JobExplorer jobExplorer) {
+        this.jobExplorer = jobExplorer;
+    }
+
+    public void setDeleteParts(boolean deleteParts) {
+        this.deleteParts = deleteParts;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(resource, "resource is required.");
+        Assert.hasText(partitionStepName, "partitionStepName is required.");
+        Assert.notNull(jobExplorer, "jobExplorer is required.");
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        Path target = resource.getFile().toPath();
+        List<Path> partPaths = new ArrayList<>();
+        for (StepExecution stepExecution : findPartitions(chunkContext.getStepContext().getStepExecution()
+                .getJobExecution())) {
+            String partName = stepExecution.getExecutionContext().getString(CsvByteRangePartitioner.PART_NAME_KEY);
+            partPaths.add(target.resolveSibling(target.getFileName() + "." + partName));
+        }
+        Assert.state(!partPaths.isEmpty(), "No partition of " + partitionStepName + " found.");
+        partPaths.sort(Comparator.comparing(p -> p.getFileName().toString()));
+
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Path part : partPaths) {
+                transfer(part, out);
+            }
+        }
+
+        if (deleteParts) {
+            for (Path part : partPaths) {
+                Files.deleteIfExists(part);
+            }
+        }
+        return RepeatStatus.FINISHED;
+    }
+
+    /**
+     * Returns the partition step executions of the latest execution of the job instance that ran
+     * {@code partitionStepName}. It is the current execution unless the partitioned step completed in an earlier one.
+     */
+    private List<StepExecution> findPartitions(JobExecution current) {
+        String partitionPrefix = partitionStepName + ":";
+        List<StepExecution> partitions = new ArrayList<>();
+        long partitionedExecutionId = -1;
+        List<JobExecution> executions = new ArrayList<>(jobExplorer.getJobExecutions(current.getJobInstance()));
+        executions.add(current);
+        for (JobExecution execution : executions) {
+            if (execution.getId() <= partitionedExecutionId) {
+                continue;
+            }
+            List<StepExecution> found = new ArrayList<>();
+            for (StepExecution stepExecution : execution.getStepExecutions()) {
+                if (stepExecution.getStepName().startsWith(partitionPrefix)) {
+                    found.add(stepExecution);
+                }
+            }
+            if (!found.isEmpty()) {
+                partitions = found;
+                partitionedExecutionId = execution.getId();
+            }
+        }
+        return partitions;
+    }
+
+    private static void transfer(Path part, FileChannel out) throws IOException {
+        try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
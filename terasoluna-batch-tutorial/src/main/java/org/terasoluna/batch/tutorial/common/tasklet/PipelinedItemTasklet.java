@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.tasklet;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tasklet running read, process and write as a pipeline.
+ * <p>
+ * A reader thread reads chunks of {@code chunkSize} items and hands each chunk to one of {@code workerCount}
+ * processing threads. The processed chunks are queued in read order, at most {@code queueCapacity} at a time, and the
+ * step thread writes them one by one. The writer therefore sees the same chunks in the same order as the sequential
+ * tasklets, within the transaction of the step. Items for which the processor returns {@code null} are filtered out.
+ * </p>
+ * <p>
+ * The processor must be thread-safe and must not depend on the step synchronization of the step thread. The reader is
+ * only accessed by the reader thread after being opened on the step thread. The step execution is registered on the
+ * reader thread, so a step-scoped reader resolves to the instance of the step. If any stage fails, including with an
+ * {@link Error}, the other stages are stopped and the failure is thrown from {@link #execute}. The reader and writer are
+ * closed only after the reader and processing threads have terminated, since an interrupt does not stop a blocking
+ * call such as a JDBC fetch. If they do not terminate within {@code shutdownTimeout} milliseconds, the reader and
+ * writer are left open and an {@link IllegalStateException} is thrown.
+ * </p>
+ * <p>
+ * The read count is added to the step execution once, after the last chunk has been written, because
+ * {@link StepContribution} only counts reads one at a time.
+ * </p>
+ *
+ * @param <I> type of input items
+ * @param <O> type of output items
+ * @since 5.5.0
+ */
+public class PipelinedItemTasklet<I, O> implements Tasklet, InitializingBean {
+
+    private ItemReader<? extends I> reader;
+
+    private ItemProcessor<? super I, ? extends O> processor;
+
+    private ItemWriter<? super O> writer;
+
+    private int chunkSize = 10;
+
+    private int workerCount = 2;
+
+    private int queueCapacity = 4;
+
+    private long shutdownTimeout = 60000;
+
+    public void setReader(ItemReader<? extends I> reader) {
+        this.reader = reader;
+    }
+
+    public void setProcessor(ItemProcessor<? super I, ? extends O> processor) {
+        this.processor = processor;
+    }
+
+    public void setWriter(ItemWriter<? super O> writer) {
+        this.writer = writer;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public void setWorkerCount(int workerCount) {
+        this.workerCount = workerCount;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void setShutdownTimeout(long shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(reader, "reader is required.");
+        Assert.notNull(processor, "processor is required.");
+        Assert.notNull(writer, "writer is required.");
+        Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0.");
+        Assert.isTrue(workerCount > 0, "workerCount must be greater than 0.");
+        Assert.isTrue(queueCapacity > 0, "queueCapacity must be greater than 0.");
+        Assert.isTrue(shutdownTimeout >= 0, "shutdownTimeout must not be negative.");
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+        String threadNamePrefix = chunkContext.getStepContext().getStepName();
+
+        BlockingQueue<Future<ProcessedChunk<O>>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Future<ProcessedChunk<O>> endOfInput = new CompletableFuture<>();
+        ExecutorService readerExecutor = Executors.newSingleThreadExecutor(threadFactory(threadNamePrefix + "-read"));
+        ExecutorService workerExecutor = Executors.newFixedThreadPool(workerCount, threadFactory(threadNamePrefix
+                + "-process"));
+
+        Throwable failure = null;
+        try {
+            open(reader, executionContext);
+            open(writer, executionContext);
+
+            readerExecutor.execute(() -> readChunks(stepExecution, queue, workerExecutor, endOfInput));
+
+            long readCount = 0;
+            Future<ProcessedChunk<O>> next;
+            while ((next = queue.take()) != endOfInput) {
+                ProcessedChunk<O> processed = get(next);
+                writer.write(new Chunk<>(processed.items));
+
+                readCount += processed.readCount;
+                contribution.incrementFilterCount(processed.readCount - processed.items.size());
+                contribution.incrementWriteCount(processed.items.size());
+            }
+            stepExecution.setReadCount(stepExecution.getReadCount() + readCount);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            readerExecutor.shutdownNow();
+            workerExecutor.shutdownNow();
+            for (Future<ProcessedChunk<O>> pending : queue) {
+                if (pending != endOfInput) {
+                    pending.cancel(true);
+                }
+            }
+            if (!awaitTermination(readerExecutor, workerExecutor)) {
+                IllegalStateException timeout = new IllegalStateException("The reader or processing threads of "
+                        + threadNamePrefix + " did not terminate within " + shutdownTimeout
+                        + " ms. The reader and writer are left open.");
+                if (failure != null) {
+                    timeout.addSuppressed(failure);
+                }
+                throw timeout;
+            }
+            close(reader);
+            close(writer);
+        }
+
+        return RepeatStatus.FINISHED;
+    }
+
+    private void readChunks(StepExecution stepExecution, BlockingQueue<Future<ProcessedChunk<O>>> queue,
+            ExecutorService workerExecutor, Future<ProcessedChunk<O>> endOfInput) {
+        StepSynchronizationManager.register(stepExecution);
+        try {
+            List<I> items;
+            while (!(items = readChunk()).isEmpty()) {
+                final List<I> chunk = items;
+                queue.put(CompletableFuture.supplyAsync(() -> process(chunk), workerExecutor));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            enqueue(queue, CompletableFuture.failedFuture(e));
+        } finally {
+            enqueue(queue, endOfInput);
+            StepSynchronizationManager.close();
+        }
+    }
+
+    /**
+     * Puts {@code element} into the queue unless the reader thread has been interrupted by the step thread.
+     */
+    private static <T> void enqueue(BlockingQueue<T> queue, T element) {
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        try {
+            queue.put(element);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean awaitTermination(ExecutorService... executors) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeout);
+        try {
+            for (ExecutorService executor : executors) {
+                if (!executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private List<I> readChunk() throws Exception {
+        List<I> items = new ArrayList<>(chunkSize);
+        I item;
+        while (items.size() < chunkSize && (item = reader.read()) != null) {
+            items.add(item);
+        }
+        return items;
+    }
+
+    private ProcessedChunk<O> process(List<I> chunk) {
+        List<O> items = new ArrayList<>(chunk.size());
+        try {
+            for (I item : chunk) {
+                O output = processor.process(item);
+                if (output != null) {
+                    items.add(output);
+                }
+            }
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+        return new ProcessedChunk<>(chunk.size(), items);
+    }
+
+    private static <T> T get(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null ? e
+                    .getCause().getCause() : e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void open(Object target, ExecutionContext executionContext) {
+        if (target instanceof ItemStream) {
+            ((ItemStream) target).open(executionContext);
+        }
+    }
+
+    private static void close(Object target) {
+        if (target instanceof ItemStream) {
+            try {
+                ((ItemStream) target).close();
+            } catch (ItemStreamException e) {
+                // ignore
+            }
+        }
+    }
+
+    private static ThreadFactory threadFactory(String namePrefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, namePrefix + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class ProcessedChunk<O> {
+
+        private final int readCount;
+
+        private final List<O> items;
+
+        ProcessedChunk(int readCount, List<O> items) {
+            this.readCount = readCount;
+            this.items = items;
+        }
+    }
+}
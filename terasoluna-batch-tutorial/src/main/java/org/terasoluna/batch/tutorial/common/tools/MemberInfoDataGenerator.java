@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.tools;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+/**
+ * Generator of large-volume member_info data.
+ * <p>
+ * Rows are generated from a seeded {@link SplittableRandom}, so the same arguments always produce the same data. The
+ * ids are sequential from {@code 00000001}. Arguments are given as {@code key=value}.
+ * </p>
+ * <ul>
+ * <li>{@code rows} : number of rows. (default: 1000000)</li>
+ * <li>{@code seed} : seed of the random values. (default: 20170101)</li>
+ * <li>{@code goldRatio} : ratio of type {@code G}. The rest is type {@code N}. (default: 0.5)</li>
+ * <li>{@code targetRatio} : ratio of status {@code 1}. The rest is status {@code 0}. (default: 0.5)</li>
+ * <li>{@code pointDistribution} : {@code uniform} in [0, pointMax] or {@code exponential} with mean {@code pointMean}
+ * capped at 1000000. (default: uniform)</li>
+ * <li>{@code pointMax} : upper bound of the uniform distribution. (default: 100000)</li>
+ * <li>{@code pointMean} : mean of the exponential distribution. (default: 10000)</li>
+ * <li>{@code nearCapRatio} : ratio of rows whose point is within 100 of the cap of 1000000. (default: 0)</li>
+ * <li>{@code errorRatio} : ratio of rows whose point exceeds 1000000 and fails the input check. (default: 0)</li>
+ * <li>{@code csv} : output file in MS932. If omitted, the rows are loaded into member_info of the job database.</li>
+ * <li>{@code append} : keep the existing rows of member_info instead of truncating it. (default: false)</li>
+ * </ul>
+ * <p>
+ * The job database is taken from {@code batch-application.properties}. The rows are loaded with {@code COPY} on
+ * PostgreSQL and {@code CSVREAD} on H2, and with JDBC batch inserts on other databases.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public final class MemberInfoDataGenerator {
+
+    private static final Charset CSV_CHARSET = Charset.forName("MS932");
+
+    private static final int MAX_POINT = 1000000;
+
+    private static final int MAX_ROWS = 99999999;
+
+    private static final int INSERT_BATCH_SIZE = 10000;
+
+    private static final String COPY_SQL = "COPY member_info (id, type, status, point) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String INSERT_SQL = "INSERT INTO member_info (id, type, status, point) VALUES (?, ?, ?, ?)";
+
+    private final Properties arguments;
+
+    private final int rows;
+
+    private final long seed;
+
+    private final double goldRatio;
+
+    private final double targetRatio;
+
+    private final boolean exponential;
+
+    private final int pointMax;
+
+    private final double pointMean;
+
+    private final double nearCapRatio;
+
+    private final double errorRatio;
+
+    MemberInfoDataGenerator(Properties arguments) {
+        this.arguments = arguments;
+        this.rows = Integer.parseInt(arguments.getProperty("rows", "1000000"));
+        this.seed = Long.parseLong(arguments.getProperty("seed", "20170101"));
+        this.goldRatio = ratio("goldRatio", "0.5");
+        this.targetRatio = ratio("targetRatio", "0.5");
+        String distribution = arguments.getProperty("pointDistribution", "uniform");
+        if (!"uniform".equals(distribution) && !"exponential".equals(distribution)) {
+            throw new IllegalArgumentException("pointDistribution must be uniform or exponential. [" + distribution
+                    + "]");
+        }
+        this.exponential = "exponential".equals(distribution);
+        this.pointMax = Integer.parseInt(arguments.getProperty("pointMax", "100000"));
+        this.pointMean = Double.parseDouble(arguments.getProperty("pointMean", "10000"));
+        this.nearCapRatio = ratio("nearCapRatio", "0");
+        this.errorRatio = ratio("errorRatio", "0");
+        if (rows < 0 || rows > MAX_ROWS) {
+            throw new IllegalArgumentException("rows must be between 0 and " + MAX_ROWS + ". [" + rows + "]");
+        }
+        if (pointMax < 0 || pointMax > MAX_POINT) {
+            throw new IllegalArgumentException("pointMax must be between 0 and " + MAX_POINT + ". [" + pointMax
+                    + "]");
+        }
+        if (nearCapRatio + errorRatio > 1.0) {
+            throw new IllegalArgumentException("nearCapRatio + errorRatio must not exceed 1.");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Properties arguments = new Properties();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                System.err.println("Usage: MemberInfoDataGenerator [key=value ...]");
+                System.exit(1);
+            }
+            arguments.setProperty(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        MemberInfoDataGenerator generator = new MemberInfoDataGenerator(arguments);
+        long start = System.nanoTime();
+        String target;
+        if (arguments.containsKey("csv")) {
+            target = generator.writeCsv(Paths.get(arguments.getProperty("csv")));
+        } else {
+            target = generator.loadDatabase();
+        }
+        System.out.printf("Generated %d rows into %s in %d ms.%n", generator.rows, target, (System.nanoTime()
+                - start) / 1000000);
+    }
+
+    String writeCsv(Path path) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(path, CSV_CHARSET)) {
+            generate(writer);
+        }
+        return path.toString();
+    }
+
+    String loadDatabase() throws IOException, SQLException {
+        Properties properties = PropertiesLoaderUtils.loadAllProperties("batch-application.properties");
+        String url = properties.getProperty("jdbc.url");
+        try (Connection connection = DriverManager.getConnection(url, properties.getProperty("jdbc.username"),
+                properties.getProperty("jdbc.password"))) {
+            String createTableScript = properties.getProperty("tutorial.create-table.script");
+            if (createTableScript != null) {
+                Resource script = new DefaultResourceLoader().getResource(createTableScript);
+                ScriptUtils.executeSqlScript(connection, script);
+            }
+
+            connection.setAutoCommit(false);
+            if (!Boolean.parseBoolean(arguments.getProperty("append", "false"))) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate("TRUNCATE TABLE member_info");
+                }
+            }
+
+            String product = connection.getMetaData().getDatabaseProductName();
+            if ("PostgreSQL".equals(product)) {
+                copy(connection);
+            } else if ("H2".equals(product)) {
+                csvRead(connection);
+            } else {
+                batchInsert(connection);
+            }
+            connection.commit();
+        }
+        return url;
+    }
+
+    private void copy(Connection connection) throws IOException, SQLException {
+        PGCopyOutputStream out = new PGCopyOutputStream(connection.unwrap(PGConnection.class), COPY_SQL, 65536);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, CSV_CHARSET), 65536)) {
+            generate(writer);
+        }
+    }
+
+    private void csvRead(Connection connection) throws IOException, SQLException {
+        Path file = Files.createTempFile("member_info", ".csv");
+        try {
+            writeCsv(file);
+            String sql = "INSERT INTO member_info (id, type, status, point) SELECT * FROM CSVREAD('" + file
+                    .toAbsolutePath().toString().replace("'", "''") + "', 'ID,TYPE,STATUS,POINT', 'charset="
+                    + CSV_CHARSET.name() + "')";
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(sql);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void batchInsert(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            SplittableRandom random = new SplittableRandom(seed);
+            for (int i = 1; i <= rows; i++) {
+                statement.setString(1, id(i));
+                statement.setString(2, String.valueOf(type(random)));
+                statement.setString(3, String.valueOf(status(random)));
+                statement.setInt(4, point(random));
+                statement.addBatch();
+                if (i % INSERT_BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void generate(Writer writer) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 1; i <= rows; i++) {
+            writer.write(id(i));
+            writer.write(',');
+            writer.write(type(random));
+            writer.write(',');
+            writer.write(status(random));
+            writer.write(',');
+            writer.write(Integer.toString(point(random)));
+            writer.write('\n');
+        }
+    }
+
+    private static String id(int sequence) {
+        return String.format("%08d", sequence);
+    }
+
+    private char type(SplittableRandom random) {
+        return random.nextDouble() < goldRatio ? 'G' : 'N';
+    }
+
+    private char status(SplittableRandom random) {
+        return random.nextDouble() < targetRatio ? '1' : '0';
+    }
+
+    private int point(SplittableRandom random) {
+        double kind = random.nextDouble();
+        if (kind < errorRatio) {
+            return MAX_POINT + 1 + random.nextInt(1000);
+        }
+        if (kind < errorRatio + nearCapRatio) {
+            return MAX_POINT - random.nextInt(101);
+        }
+        if (exponential) {
+            return (int) Math.min(MAX_POINT, -pointMean * Math.log(1.0 - random.nextDouble()));
+        }
+        return random.nextInt(pointMax + 1);
+    }
+
+    private double ratio(String key, String defaultValue) {
+        double value = Double.parseDouble(arguments.getProperty(key, defaultValue));
+        if (value < 0.0 || value > 1.0) {
+            throw new IllegalArgumentException(key + " must be between 0 and 1. [" + value + "]");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.validator.SpringValidator;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.batch.item.validator.Validator;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.terasoluna.batch.tutorial.common.mapping.LambdaAccessors;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.groups.Default;
+import jakarta.validation.metadata.BeanDescriptor;
+import jakarta.validation.metadata.ConstraintDescriptor;
+import jakarta.validation.metadata.PropertyDescriptor;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Validator checking the Bean Validation constraints of one item type with precompiled checks.
+ * <p>
+ * The constraint metadata of {@code type} is read once at startup. {@link Max}, {@link Min} and {@link NotNull} on
+ * integral properties with a public getter, in the default group and without payload, are compiled into direct
+ * getter calls and comparisons. The properties having any other constraint are validated by Bean Validation property
+ * by property, and the whole item is validated by Bean Validation if the type has class-level constraints or the item
+ * is of another class.
+ * </p>
+ * <p>
+ * When a check fails, the item is validated again by {@link SpringValidator}, so the {@link ValidationException} and
+ * its message are the same as those of {@link SpringValidator}.
+ * </p>
+ *
+ * @param <T> type of the items
+ * @since 5.5.0
+ */
+public class CompiledBeanValidator<T> implements Validator<T>, InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompiledBeanValidator.class);
+
+    private static final Set<Class<?>> INTEGRAL_TYPES = Set.of(byte.class, short.class, int.class, long.class);
+
+    private static final Set<Class<?>> INTEGRAL_WRAPPER_TYPES = Set.of(Byte.class, Short.class, Integer.class,
+            Long.class);
+
+    private Class<T> type;
+
+    private SpringValidatorAdapter validator;
+
+    private final SpringValidator<T> springValidator = new SpringValidator<>();
+
+    private List<Predicate<T>> checks;
+
+    private String[] fallbackProperties;
+
+    private boolean fallbackAll;
+
+    public void setType(Class<T> type) {
+        this.type = type;
+    }
+
+    public void setValidator(SpringValidatorAdapter validator) {
+        this.validator = validator;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Assert.notNull(type, "type is required.");
+        Assert.notNull(validator, "validator is required.");
+        springValidator.setValidator(validator);
+        springValidator.afterPropertiesSet();
+
+        BeanDescriptor beanDescriptor = validator.getConstraintsForClass(type);
+        checks = new ArrayList<>();
+        Set<String> fallbacks = new LinkedHashSet<>();
+        fallbackAll = !beanDescriptor.getConstraintDescriptors().isEmpty();
+        for (PropertyDescriptor property : beanDescriptor.getConstrainedProperties()) {
+            if (!compile(property)) {
+                fallbacks.add(property.getPropertyName());
+            }
+        }
+        fallbackProperties = fallbacks.toArray(new String[0]);
+
+        if (fallbackAll) {
+            logger.info("{} has class-level constraints and is validated by Bean Validation.", type.getName());
+        } else {
+            logger.info("Compiled {} constraint checks of {}. Properties validated by Bean Validation: {}", checks
+                    .size(), type.getName(), fallbacks);
+        }
+    }
+
+    @Override
+    public void validate(T item) throws ValidationException {
+        if (fallbackAll || item == null || item.getClass() != type) {
+            springValidator.validate(item);
+            return;
+        }
+        for (int i = 0; i < checks.size(); i++) {
+            if (!checks.get(i).test(item)) {
+                springValidator.validate(item);
+                return;
+            }
+        }
+        for (String property : fallbackProperties) {
+            if (!validator.validateProperty(item, property).isEmpty()) {
+                springValidator.validate(item);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds the checks of a property. Returns {@code false} without adding any if one of its constraints cannot be
+     * compiled.
+     */
+    private boolean compile(PropertyDescriptor property) {
+        if (property.isCascaded() || !property.getConstrainedContainerElementTypes().isEmpty()) {
+            return false;
+        }
+        List<Predicate<T>> propertyChecks = new ArrayList<>();
+        for (ConstraintDescriptor<?> constraint : property.getConstraintDescriptors()) {
+            Predicate<T> check = compile(property.getPropertyName(), constraint);
+            if (check == null) {
+                return false;
+            }
+            propertyChecks.add(check);
+        }
+        checks.addAll(propertyChecks);
+        return true;
+    }
+
+    private Predicate<T> compile(String name, ConstraintDescriptor<?> constraint) {
+        if (!constraint.getComposingConstraints().isEmpty() || !constraint.getPayload().isEmpty() || !Set.of(
+                Default.class).equals(constraint.getGroups())) {
+            return null;
+        }
+        Class<?> propertyType;
+        try {
+            propertyType = LambdaAccessors.propertyType(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        Annotation annotation = constraint.getAnnotation();
+        try {
+            if (annotation instanceof NotNull) {
+                if (propertyType.isPrimitive()) {
+                    return item -> true;
+                }
+                Function<T, Object> getter = LambdaAccessors.getter(type, name);
+                return item -> getter.apply(item) != null;
+            }
+            if (annotation instanceof Max || annotation instanceof Min) {
+                boolean max = annotation instanceof Max;
+                long limit = max ? ((Max) annotation).value() : ((Min) annotation).value();
+                if (INTEGRAL_TYPES.contains(propertyType)) {
+                    ToLongFunction<T> getter = LambdaAccessors.longGetter(type, name);
+                    return max ? item -> getter.applyAsLong(item) <= limit
+                            : item -> getter.applyAsLong(item) >= limit;
+                }
+                if (INTEGRAL_WRAPPER_TYPES.contains(propertyType)) {
+                    Function<T, Object> getter = LambdaAccessors.getter(type, name);
+                    return max ? item -> {
+                        Object value = getter.apply(item);
+                        return value == null || ((Number) value).longValue() <= limit;
+                    } : item -> {
+                        Object value = getter.apply(item);
+                        return value == null || ((Number) value).longValue() >= limit;
+                    };
+                }
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            logger.debug("Failed to compile {} of {}.", annotation, name, e);
+        }
+        return null;
+    }
+}
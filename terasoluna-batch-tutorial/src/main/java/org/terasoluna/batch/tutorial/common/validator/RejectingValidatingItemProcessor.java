@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.validator;
+
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.validator.ValidationException;
+import org.springframework.batch.item.validator.Validator;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Processor validating each item before handing it to {@code delegate}, and diverting invalid items instead of
+ * failing the chunk.
+ * <p>
+ * Spring Batch processes every item of a chunk before writing any of them, so all the items of the chunk are
+ * validated before the first write. An invalid item is added to the list held in the {@link StepContext} attribute
+ * {@link #REJECTED_ITEMS_KEY} and filtered out, so no {@link ValidationException} rolls the chunk back.
+ * {@code RejectingItemWriter} writes the list to the reject sink in the same transaction as the valid items.
+ * </p>
+ * <p>
+ * Filtered items are read but not written, so {@code StepExitStatusChangeListener} still turns the exit status into
+ * {@code SKIPPED}.
+ * </p>
+ *
+ * @param <T> type of the items
+ * @since 5.5.0
+ */
+public class RejectingValidatingItemProcessor<T> implements ItemProcessor<T, T>, InitializingBean {
+
+    /**
+     * Name of the step context attribute holding the items rejected in the current chunk.
+     */
+    public static final String REJECTED_ITEMS_KEY = RejectingValidatingItemProcessor.class.getName() + ".rejected";
+
+    private Validator<T> validator;
+
+    private ItemProcessor<T, T> delegate;
+
+    public void setValidator(Validator<T> validator) {
+        this.validator = validator;
+    }
+
+    public void setDelegate(ItemProcessor<T, T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(validator, "validator is required.");
+        Assert.notNull(delegate, "delegate is required.");
+    }
+
+    @Override
+    public T process(T item) throws Exception {
+        try {
+            validator.validate(item);
+        } catch (ValidationException e) {
+            reject(item);
+            return null;
+        }
+        return delegate.process(item);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void reject(T item) {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        Assert.state(stepContext != null, "No step context is active.");
+        List<T> rejectedItems = (List<T>) stepContext.getAttribute(REJECTED_ITEMS_KEY);
+        if (rejectedItems == null) {
+            rejectedItems = new ArrayList<>();
+            stepContext.setAttribute(REJECTED_ITEMS_KEY, rejectedItems);
+        }
+        rejectedItems.add(item);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.writer;
+
+import org.postgresql.PGConnection;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+import org.terasoluna.batch.tutorial.common.dto.MemberInfoDto;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Writer of member_info applying each chunk through a staging table.
+ * <p>
+ * The items of a chunk are first loaded into member_info_staging, with multi-row INSERT statements or, on PostgreSQL,
+ * with {@code COPY FROM STDIN}. Then member_info is updated from the staging table by a single {@code MERGE} (H2) or
+ * {@code UPDATE ... FROM} (PostgreSQL) statement, and the staged rows are deleted. All of it runs on the connection of
+ * the chunk transaction, so a rollback discards the staged rows.
+ * </p>
+ * <p>
+ * The staged rows are keyed by {@code stepExecutionId}, which is unique per job execution and partition, and the merge
+ * and delete only touch the rows of that key. Concurrent jobs and partitions sharing member_info_staging therefore
+ * never merge or delete each other's rows. Define this writer in step scope to bind the current step execution id.
+ * </p>
+ * <p>
+ * Like {@code MyBatisBatchItemWriter}, an {@link EmptyResultDataAccessException} is thrown if some items did not
+ * update any row.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class MemberInfoStagingMergeItemWriter implements ItemWriter<MemberInfoDto>, InitializingBean {
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO member_info_staging (step_execution_id, id, status, point) VALUES ";
+
+    private static final String INSERT_VALUES = "(?, ?, ?, ?)";
+
+    private static final String COPY_SQL =
+            "COPY member_info_staging (step_execution_id, id, status, point) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_SQL = "MERGE INTO member_info m USING"
+            + " (SELECT id, status, point FROM member_info_staging WHERE step_execution_id = ?) s ON (m.id = s.id)"
+            + " WHEN MATCHED THEN UPDATE SET status = s.status, point = s.point";
+
+    private static final String UPDATE_FROM_SQL = "UPDATE member_info m SET status = s.status, point = s.point"
+            + " FROM member_info_staging s WHERE m.id = s.id AND s.step_execution_id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM member_info_staging WHERE step_execution_id = ?";
+
+    private JdbcTemplate jdbcTemplate;
+
+    private Long stepExecutionId;
+
+    private int rowsPerInsert = 100;
+
+    private volatile Boolean postgresql;
+
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public void setStepExecutionId(Long stepExecutionId) {
+        this.stepExecutionId = stepExecutionId;
+    }
+
+    public void setRowsPerInsert(int rowsPerInsert) {
+        this.rowsPerInsert = rowsPerInsert;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(jdbcTemplate, "dataSource is required.");
+        Assert.notNull(stepExecutionId, "stepExecutionId is required.");
+        Assert.isTrue(rowsPerInsert > 0, "rowsPerInsert must be greater than 0.");
+    }
+
+    @Override
+    public void write(Chunk<? extends MemberInfoDto> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        final List<? extends MemberInfoDto> items = chunk.getItems();
+
+        int updateCount = jdbcTemplate.execute((ConnectionCallback<Integer>) con -> {
+            boolean usePostgresql = isPostgresql(con);
+            if (usePostgresql) {
+                copy(con, items);
+            } else {
+                insert(con, items);
+            }
+            int count;
+            try (PreparedStatement ps = con.prepareStatement(usePostgresql ? UPDATE_FROM_SQL : MERGE_SQL)) {
+                ps.setLong(1, stepExecutionId);
+                count = ps.executeUpdate();
+            }
+            try (PreparedStatement ps = con.prepareStatement(DELETE_SQL)) {
+                ps.setLong(1, stepExecutionId);
+                ps.executeUpdate();
+            }
+            return count;
+        });
+
+        if (updateCount != items.size()) {
+            throw new EmptyResultDataAccessException(String.format(
+                    "Chunk of %d items updated only %d rows of member_info.", items.size(), updateCount), items
+                            .size());
+        }
+    }
+
+    private boolean isPostgresql(Connection con) throws SQLException {
+        if (postgresql == null) {
+            postgresql = POSTGRESQL.equals(con.getMetaData().getDatabaseProductName());
+        }
+        return postgresql;
+    }
+
+    private void insert(Connection con, List<? extends MemberInfoDto> items) throws SQLException {
+        int fullSize = items.size() / rowsPerInsert * rowsPerInsert;
+        if (fullSize > 0) {
+            try (PreparedStatement ps = con.prepareStatement(insertSql(rowsPerInsert))) {
+                for (int from = 0; from < fullSize; from += rowsPerInsert) {
+                    bind(ps, items.subList(from, from + rowsPerInsert));
+                    ps.executeUpdate();
+                }
+            }
+        }
+        if (fullSize < items.size()) {
+            try (PreparedStatement ps = con.prepareStatement(insertSql(items.size() - fullSize))) {
+                bind(ps, items.subList(fullSize, items.size()));
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_SQL.length() + rows * (INSERT_VALUES.length() + 2));
+        sql.append(INSERT_SQL).append(INSERT_VALUES);
+        for (int i = 1; i < rows; i++) {
+            sql.append(", ").append(INSERT_VALUES);
+        }
+        return sql.toString();
+    }
+
+    private void bind(PreparedStatement ps, List<? extends MemberInfoDto> items) throws SQLException {
+        int index = 1;
+        for (MemberInfoDto item : items) {
+            ps.setLong(index++, stepExecutionId);
+            ps.setString(index++, item.getId());
+            ps.setString(index++, item.getStatus());
+            ps.setInt(index++, item.getPoint());
+        }
+    }
+
+    private void copy(Connection con, List<? extends MemberInfoDto> items) throws SQLException {
+        StringBuilder csv = new StringBuilder(items.size() * 30);
+        for (MemberInfoDto item : items) {
+            csv.append(stepExecutionId).append(',');
+            appendQuoted(csv, item.getId()).append(',');
+            appendQuoted(csv, item.getStatus()).append(',');
+            csv.append(item.getPoint()).append('\n');
+        }
+        try {
+            con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new SQLException("Failed to copy items into member_info_staging.", e);
+        }
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder csv, String value) {
+        if (value == null) {
+            return csv;
+        }
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.common.writer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.terasoluna.batch.tutorial.common.validator.RejectingValidatingItemProcessor;
+
+import java.util.List;
+
+/**
+ * Writer writing the items rejected by {@link RejectingValidatingItemProcessor} to {@code rejectWriter}, and the
+ * valid items to {@code delegate}.
+ * <p>
+ * Both are written in the chunk transaction, so a rollback discards the rejected rows together with the valid ones.
+ * The rejected items are not written by {@code delegate}, so they are counted in the filter count of the step.
+ * </p>
+ *
+ * @param <T> type of the items
+ * @since 5.5.0
+ */
+public class RejectingItemWriter<T> implements ItemWriter<T>, InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(RejectingItemWriter.class);
+
+    private ItemWriter<T> delegate;
+
+    private ItemWriter<T> rejectWriter;
+
+    public void setDelegate(ItemWriter<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    public void setRejectWriter(ItemWriter<T> rejectWriter) {
+        this.rejectWriter = rejectWriter;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(delegate, "delegate is required.");
+        Assert.notNull(rejectWriter, "rejectWriter is required.");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(Chunk<? extends T> chunk) throws Exception {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        List<T> rejectedItems = stepContext != null ? (List<T>) stepContext.removeAttribute(
+                RejectingValidatingItemProcessor.REJECTED_ITEMS_KEY) : null;
+        if (rejectedItems != null && !rejectedItems.isEmpty()) {
+            rejectWriter.write(new Chunk<>(rejectedItems));
+            logger.warn("Rejected {} invalid items in the chunk.", rejectedItems.size());
+        }
+        if (!chunk.isEmpty()) {
+            delegate.write(chunk);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.dbaccess.chunk;
+
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.stereotype.Component;
+import org.terasoluna.batch.tutorial.common.dto.MemberInfoDto;
+import org.terasoluna.batch.tutorial.common.listener.StepExitStatusChangeListener;
+
+import jakarta.inject.Inject;
+import java.util.Objects;
+
+/**
+ * Processor of the changed-only mode.
+ * <p>
+ * Items are processed by {@link PointAddItemProcessor}. Items left unchanged by it are filtered out instead of being
+ * rewritten by the writer, so they are counted in the filter count of the step, which
+ * {@link StepExitStatusChangeListener} can be told not to treat as skipped items.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+@Component
+public class ChangedOnlyPointAddItemProcessor implements ItemProcessor<MemberInfoDto, MemberInfoDto> {
+
+    @Inject
+    PointAddItemProcessor pointAddItemProcessor;
+
+    @Override
+    public MemberInfoDto process(MemberInfoDto item) throws Exception {
+        String status = item.getStatus();
+        int point = item.getPoint();
+
+        MemberInfoDto result = pointAddItemProcessor.process(item);
+        if (result == null || (Objects.equals(status, result.getStatus()) && point == result.getPoint())) {
+            return null;
+        }
+        return result;
+    }
+}
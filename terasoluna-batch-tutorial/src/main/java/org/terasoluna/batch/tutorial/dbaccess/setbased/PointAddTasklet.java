@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.dbaccess.setbased;
+
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.terasoluna.batch.tutorial.common.repository.MemberInfoRepository;
+
+import jakarta.inject.Inject;
+
+/**
+ * Tasklet running the point-add rule as set-based SQL.
+ * <p>
+ * Each call updates one id range of {@code rangeSize} rows with a single UPDATE statement and returns
+ * {@link RepeatStatus#CONTINUABLE}, so every range is committed in its own transaction. The start of the next range is
+ * saved in the step execution context, and a restart resumes from the first uncommitted range.
+ * </p>
+ * <p>
+ * The read and write counts are the number of rows in each range, which are the counts the chunk job reports for the
+ * same data. {@link StepContribution} only counts reads one at a time, so the read count of the step execution is
+ * raised once per range after its UPDATE succeeds. The number of rows actually updated is saved in the step execution
+ * context as {@code updateCount}.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+@Component
+public class PointAddTasklet implements Tasklet {
+
+    private static final String NEXT_FROM_ID_KEY = "nextFromId";
+
+    private static final String UPDATE_COUNT_KEY = "updateCount";
+
+    @Inject
+    MemberInfoRepository memberInfoRepository;
+
+    @Value("${tutorial.set-based.range-size:10000}")
+    int rangeSize;
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+
+        String fromId = executionContext.containsKey(NEXT_FROM_ID_KEY) ? executionContext.getString(NEXT_FROM_ID_KEY)
+                : null;
+        String toId = memberInfoRepository.findIdByOffset(fromId, rangeSize);
+
+        long rowCount = memberInfoRepository.countByIdRange(fromId, toId);
+        int updateCount = memberInfoRepository.updatePointAndStatusByIdRange(fromId, toId);
+
+        stepExecution.setReadCount(stepExecution.getReadCount() + rowCount);
+        contribution.incrementWriteCount(rowCount);
+        executionContext.putLong(UPDATE_COUNT_KEY, executionContext.getLong(UPDATE_COUNT_KEY, 0L) + updateCount);
+
+        if (toId == null) {
+            return RepeatStatus.FINISHED;
+        }
+        executionContext.putString(NEXT_FROM_ID_KEY, toId);
+        return RepeatStatus.CONTINUABLE;
+    }
+}
@@ -16,6 +16,7 @@
 package org.terasoluna.batch.tutorial.dbaccess.tasklet;
 
 import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.item.Chunk;
@@ -24,10 +25,13 @@ import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.stereotype.Component;
 import org.terasoluna.batch.tutorial.common.dto.MemberInfoDto;
+import org.terasoluna.batch.tutorial.common.policy.AdaptiveCompletionPolicy;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @Component
 public class PointAddTasklet implements Tasklet {
@@ -48,13 +52,21 @@ public class PointAddTasklet implements Tasklet {
     ItemStreamReader<MemberInfoDto> reader;
 
     @Inject
+    @Named("writer")
     ItemWriter<MemberInfoDto> writer;
 
+    @Inject
+    Optional<AdaptiveCompletionPolicy> completionPolicy;
+
     @Override
     public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
         MemberInfoDto item = null;
 
-        List<MemberInfoDto> items = new ArrayList<>(CHUNK_SIZE);
+        StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+        int chunkSize = completionPolicy.map(p -> p.getChunkSize(stepExecution)).orElse(CHUNK_SIZE);
+        long chunkStartNanos = System.nanoTime();
+
+        List<MemberInfoDto> items = new ArrayList<>(chunkSize);
 
         try {
             reader.open(chunkContext.getStepContext().getStepExecution().getExecutionContext());
@@ -77,8 +89,13 @@ public class PointAddTasklet implements Tasklet {
 
                 items.add(item);
 
-                if (items.size() == CHUNK_SIZE) {
+                if (items.size() >= chunkSize) {
                     writer.write(new Chunk(items));
+                    if (completionPolicy.isPresent()) {
+                        chunkSize = completionPolicy.get().chunkCompleted(stepExecution, items.size(), System
+                                .nanoTime() - chunkStartNanos);
+                        chunkStartNanos = System.nanoTime();
+                    }
                     items.clear();
                 }
             }
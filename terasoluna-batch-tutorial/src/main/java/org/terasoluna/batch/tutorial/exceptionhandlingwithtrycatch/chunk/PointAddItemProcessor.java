@@ -20,12 +20,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.validator.ValidationException;
 import org.springframework.batch.item.validator.Validator;
-import org.springframework.context.MessageSource;
 import org.springframework.stereotype.Component;
 import org.terasoluna.batch.tutorial.common.dto.MemberInfoDto;
+import org.terasoluna.batch.tutorial.common.listener.AggregatingErrorReporter;
 
 import jakarta.inject.Inject;
-import java.util.Locale;
 
 @Component
 public class PointAddItemProcessor implements ItemProcessor<MemberInfoDto, MemberInfoDto> {
@@ -39,10 +38,12 @@ public class PointAddItemProcessor implements ItemProcessor<MemberInfoDto, Membe
 
     private static final int MAX_POINT = 1000000;
 
+    private static final Object[] MAX_POINT_MESSAGE_ARGS = { "point", "1000000" };
+
     private static final Logger logger = LoggerFactory.getLogger(PointAddItemProcessor.class);
 
     @Inject
-    MessageSource messageSource;
+    AggregatingErrorReporter errorReporter;
 
     @Inject
     Validator<MemberInfoDto> validator;
@@ -52,8 +53,7 @@ public class PointAddItemProcessor implements ItemProcessor<MemberInfoDto, Membe
         try {
             validator.validate(item);
         } catch (ValidationException e) {
-            logger.warn(messageSource.getMessage("errors.maxInteger", new String[] { "point", "1000000" }, Locale
-                    .getDefault()));
+            errorReporter.report(logger, "errors.maxInteger", MAX_POINT_MESSAGE_ARGS);
             return null;
         }
 
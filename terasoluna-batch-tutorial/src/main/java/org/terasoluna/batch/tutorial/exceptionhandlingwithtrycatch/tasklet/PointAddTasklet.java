@@ -27,14 +27,13 @@ import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.validator.ValidationException;
 import org.springframework.batch.item.validator.Validator;
 import org.springframework.batch.repeat.RepeatStatus;
-import org.springframework.context.MessageSource;
 import org.springframework.stereotype.Component;
 import org.terasoluna.batch.tutorial.common.dto.MemberInfoDto;
+import org.terasoluna.batch.tutorial.common.listener.AggregatingErrorReporter;
 
 import jakarta.inject.Inject;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 @Component
 public class PointAddTasklet implements Tasklet {
@@ -49,12 +48,14 @@ public class PointAddTasklet implements Tasklet {
 
     private static final int MAX_POINT = 1000000;
 
+    private static final Object[] MAX_POINT_MESSAGE_ARGS = { "point", "1000000" };
+
     private static final int CHUNK_SIZE = 10;
 
     private static final Logger logger = LoggerFactory.getLogger(PointAddTasklet.class);
 
     @Inject
-    MessageSource messageSource;
+    AggregatingErrorReporter errorReporter;
 
     @Inject
     ItemStreamReader<MemberInfoDto> reader;
@@ -78,8 +79,7 @@ public class PointAddTasklet implements Tasklet {
                 try {
                     validator.validate(item);
                 } catch (ValidationException e) {
-                    logger.warn(messageSource.getMessage("errors.maxInteger", new String[] { "point", "1000000" },
-                            Locale.getDefault()));
+                    errorReporter.report(logger, "errors.maxInteger", MAX_POINT_MESSAGE_ARGS);
                     errorCount++;
                     continue;
                 }
@@ -103,6 +103,7 @@ public class PointAddTasklet implements Tasklet {
                 if (items.size() == CHUNK_SIZE) {
                     writer.write(new Chunk(items));
                     items.clear();
+                    errorReporter.summarizeChunk();
                 }
             }
 
@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.logback.mongodb;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import com.mongodb.DBObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous variant of {@link MongoDBLoggingEventAdapterEx}.
+ * <p>
+ * The logging thread only prepares the event for deferred processing and puts it into a bounded lock-free ring
+ * buffer. A dedicated worker thread converts the events into the same documents as
+ * {@link MongoDBLoggingEventAdapterEx} and inserts them with one request per {@code batchSize} events. The worker
+ * sleeps while the buffer is empty and is unparked by the logging thread that adds the next event.
+ * </p>
+ * <p>
+ * When the buffer is full, {@code overflowPolicy} {@code BLOCK} makes the logging thread wait for free space, and
+ * {@code DROP} discards the event and counts it. On {@code stop()}, the worker inserts the remaining events for up to
+ * {@code maxFlushTime} milliseconds, so configure a shutdown hook in logback.xml to keep the last events of a job.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public class AsyncMongoDBLoggingEventAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    /**
+     * Behavior of the logging thread when the buffer is full.
+     */
+    public enum OverflowPolicy {
+        BLOCK, DROP
+    }
+
+    private final MongoDBLoggingEventAdapterEx documentConverter = new MongoDBLoggingEventAdapterEx();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private final Object spaceMonitor = new Object();
+
+    private String uri;
+
+    private MongoDocumentSink sink;
+
+    private int bufferSize = 8192;
+
+    private int batchSize = 256;
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    private long maxFlushTime = 5000;
+
+    private boolean includeCallerData;
+
+    private LoggingEventRingBuffer<ILoggingEvent> ringBuffer;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    private volatile boolean workerParked;
+
+    private int blockedProducers;
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public void setSink(MongoDocumentSink sink) {
+        this.sink = sink;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public void setMaxFlushTime(long maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    /**
+     * Returns the number of events discarded by the {@code DROP} policy.
+     *
+     * @return number of discarded events
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (uri == null) {
+            addError("No uri set for the appender named [" + name + "].");
+            return;
+        }
+        if (Integer.bitCount(bufferSize) != 1 || bufferSize < 2) {
+            addError("bufferSize must be a power of 2. [" + bufferSize + "]");
+            return;
+        }
+        if (batchSize < 1) {
+            addError("batchSize must be greater than 0. [" + batchSize + "]");
+            return;
+        }
+
+        if (sink == null) {
+            sink = new MongoClientDocumentSink();
+        }
+        try {
+            sink.open(uri);
+        } catch (RuntimeException e) {
+            addError("Failed to open the MongoDB sink. [" + uri + "]", e);
+            return;
+        }
+
+        documentConverter.setIncludeCallerData(includeCallerData);
+        ringBuffer = new LoggingEventRingBuffer<>(bufferSize);
+        droppedCount.set(0);
+        running = true;
+        worker = new Thread(this::drain, "AsyncMongoDBAppender-Worker-" + getName());
+        worker.setDaemon(true);
+        worker.start();
+        super.start();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+
+        if (!ringBuffer.offer(event)) {
+            if (overflowPolicy == OverflowPolicy.DROP || !awaitSpace(event)) {
+                droppedCount.incrementAndGet();
+                return;
+            }
+        }
+        if (workerParked) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Waits until the worker frees space in the buffer and offers the event again.
+     *
+     * @return {@code true} if the event was added, {@code false} if the appender stopped first
+     */
+    private boolean awaitSpace(ILoggingEvent event) {
+        synchronized (spaceMonitor) {
+            blockedProducers++;
+            try {
+                while (!ringBuffer.offer(event)) {
+                    if (!running) {
+                        return false;
+                    }
+                    spaceMonitor.wait();
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                blockedProducers--;
+            }
+        }
+    }
+
+    private void signalSpace() {
+        synchronized (spaceMonitor) {
+            if (blockedProducers > 0) {
+                spaceMonitor.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        LockSupport.unpark(worker);
+        signalSpace();
+        try {
+            worker.join(maxFlushTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            addWarn("Max flush time of " + maxFlushTime + " ms exceeded. Remaining log events are discarded.");
+            worker.interrupt();
+        }
+        if (droppedCount.get() > 0) {
+            addWarn(droppedCount.get() + " log events were discarded because the buffer was full.");
+        }
+        sink.close();
+    }
+
+    private void drain() {
+        List<ILoggingEvent> events = new ArrayList<>(batchSize);
+        List<DBObject> documents = new ArrayList<>(batchSize);
+        while (true) {
+            if (ringBuffer.drainTo(events, batchSize) == 0) {
+                if (!running && ringBuffer.isEmpty()) {
+                    return;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                workerParked = true;
+                if (running && ringBuffer.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                workerParked = false;
+                continue;
+            }
+            signalSpace();
+
+            try {
+                for (ILoggingEvent event : events) {
+                    documents.add(documentConverter.toMongoDocument(event));
+                }
+                sink.insertMany(documents);
+            } catch (RuntimeException e) {
+                addError("Failed to insert " + events.size() + " log events into MongoDB.", e);
+            } finally {
+                events.clear();
+                documents.clear();
+            }
+        }
+    }
+}
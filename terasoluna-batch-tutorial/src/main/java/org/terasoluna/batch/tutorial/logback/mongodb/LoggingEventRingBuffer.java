@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.logback.mongodb;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer with many producers and a single consumer.
+ * <p>
+ * A producer claims a slot by advancing the producer index with CAS and then publishes the element into it. The
+ * consumer takes the elements in claim order and stops at a slot that is claimed but not yet published.
+ * </p>
+ *
+ * @param <E> type of the elements
+ * @since 5.5.0
+ */
+final class LoggingEventRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> buffer;
+
+    private final int mask;
+
+    private final AtomicLong producerIndex = new AtomicLong();
+
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    LoggingEventRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of 2. [" + capacity + "]");
+        }
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds an element unless the buffer is full.
+     *
+     * @param element element to add
+     * @return {@code false} if the buffer is full
+     */
+    boolean offer(E element) {
+        while (true) {
+            long producer = producerIndex.get();
+            if (producer - consumerIndex.get() > mask) {
+                return false;
+            }
+            if (producerIndex.compareAndSet(producer, producer + 1)) {
+                buffer.lazySet((int) producer & mask, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code maxElements} published elements into {@code target}. Called only by the consumer thread.
+     *
+     * @param target list receiving the elements
+     * @param maxElements maximum number of elements to move
+     * @return number of elements moved
+     */
+    int drainTo(List<E> target, int maxElements) {
+        long consumer = consumerIndex.get();
+        int count = 0;
+        while (count < maxElements) {
+            int index = (int) (consumer + count) & mask;
+            E element = buffer.get(index);
+            if (element == null) {
+                break;
+            }
+            buffer.lazySet(index, null);
+            target.add(element);
+            count++;
+        }
+        if (count > 0) {
+            consumerIndex.lazySet(consumer + count);
+        }
+        return count;
+    }
+
+    boolean isEmpty() {
+        return producerIndex.get() == consumerIndex.get();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.logback.mongodb;
+
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientURI;
+
+import java.util.List;
+
+/**
+ * {@link MongoDocumentSink} inserting into the collection of the URI with the MongoDB Java driver.
+ *
+ * @since 5.5.0
+ */
+public class MongoClientDocumentSink implements MongoDocumentSink {
+
+    private MongoClient mongoClient;
+
+    private DBCollection collection;
+
+    @Override
+    public void open(String uri) {
+        MongoClientURI clientUri = new MongoClientURI(uri);
+        mongoClient = new MongoClient(clientUri);
+        collection = mongoClient.getDB(clientUri.getDatabase()).getCollection(clientUri.getCollection());
+    }
+
+    @Override
+    public void insertMany(List<DBObject> documents) {
+        collection.insert(documents);
+    }
+
+    @Override
+    public void close() {
+        if (mongoClient != null) {
+            mongoClient.close();
+            mongoClient = null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2017 NTT DATA Corporation. Copyright (C) 2017 NTT Corporation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.terasoluna.batch.tutorial.logback.mongodb;
+
+import com.mongodb.DBObject;
+
+import java.util.List;
+
+/**
+ * Destination of the log documents of {@link AsyncMongoDBLoggingEventAppender}.
+ * <p>
+ * An implementation other than {@link MongoClientDocumentSink} can be configured to run the appender against a stub
+ * endpoint.
+ * </p>
+ *
+ * @since 5.5.0
+ */
+public interface MongoDocumentSink {
+
+    /**
+     * Opens the sink.
+     *
+     * @param uri URI given to the appender, including the database and the collection
+     */
+    void open(String uri);
+
+    /**
+     * Inserts documents in one request.
+     *
+     * @param documents documents to insert
+     */
+    void insertMany(List<DBObject> documents);
+
+    /**
+     * Closes the sink.
+     */
+    void close();
+}
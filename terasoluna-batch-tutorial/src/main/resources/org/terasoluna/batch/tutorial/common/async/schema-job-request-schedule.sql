@@ -0,0 +1,8 @@
+ALTER TABLE batch_job_request ADD COLUMN IF NOT EXISTS priority INTEGER DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS batch_job_request_class (
+    job_name VARCHAR(100) NOT NULL,
+    max_concurrency INTEGER,
+    weight INTEGER DEFAULT 1 NOT NULL,
+    CONSTRAINT batch_job_request_class_pkc PRIMARY KEY (job_name)
+);